@@ -0,0 +1,129 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.compiler;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.element.TypeElement;
+
+//
+// the field types which android-simple-ORM maps to a column, see EntityUtils.FieldHelper.
+//
+enum ColumnType {
+
+    Bool("cursor.getInt(%s) != 0", "bindLong", "%s ? 1 : 0"),
+    Int8("(byte) cursor.getInt(%s)", "bindLong", "%s"),
+    Int16("(short) cursor.getInt(%s)", "bindLong", "%s"),
+    Int32("cursor.getInt(%s)", "bindLong", "%s"),
+    Int64("cursor.getLong(%s)", "bindLong", "%s"),
+    Float32("cursor.getFloat(%s)", "bindDouble", "%s"),
+    Float64("cursor.getDouble(%s)", "bindDouble", "%s"),
+    Text("cursor.getString(%s)", "bindString", "%s"),
+    Blob("cursor.getBlob(%s)", "bindBlob", "%s"),
+    BoxedBlob("EntityMappers.toBoxedBytes(cursor.getBlob(%s))",
+            "bindBlob", "EntityMappers.toPrimitiveBytes(%s)");
+
+
+    private final String mReadFormat;
+    private final String mBindMethod;
+    private final String mBindValueFormat;
+
+
+    ColumnType(String readFormat,
+            String bindMethod, String bindValueFormat) {
+
+        mReadFormat = readFormat;
+        mBindMethod = bindMethod;
+        mBindValueFormat = bindValueFormat;
+    }
+
+    String read(String columnIndex) {
+        return String.format(mReadFormat, columnIndex);
+    }
+
+    String bind(String bindIndex, String value) {
+        return "statement." + mBindMethod + "(" + bindIndex + ", "
+                + String.format(mBindValueFormat, value) + ");";
+    }
+
+    String putValue(String value) {
+        return this == BoxedBlob ? String.format(mBindValueFormat, value) : value;
+    }
+
+    static ColumnType of(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return Bool;
+            case BYTE:
+                return Int8;
+            case SHORT:
+                return Int16;
+            case INT:
+                return Int32;
+            case LONG:
+                return Int64;
+            case FLOAT:
+                return Float32;
+            case DOUBLE:
+                return Float64;
+            case ARRAY:
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                if (component.getKind() == TypeKind.BYTE) {
+                    return Blob;
+                }
+
+                return "java.lang.Byte".equals(qualifiedName(component)) ? BoxedBlob : null;
+            case DECLARED:
+                String name = qualifiedName(type);
+                if ("java.lang.Boolean".equals(name)) {
+                    return Bool;
+                } else if ("java.lang.Byte".equals(name)) {
+                    return Int8;
+                } else if ("java.lang.Short".equals(name)) {
+                    return Int16;
+                } else if ("java.lang.Integer".equals(name)) {
+                    return Int32;
+                } else if ("java.lang.Long".equals(name)) {
+                    return Int64;
+                } else if ("java.lang.Float".equals(name)) {
+                    return Float32;
+                } else if ("java.lang.Double".equals(name)) {
+                    return Float64;
+                } else if ("java.lang.String".equals(name)) {
+                    return Text;
+                }
+
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static String qualifiedName(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.compiler;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+//
+// generates a `Entity$$ORMMapper` for every concrete BaseEntity, so that
+// SQLiteORMSupporter can load & save entities without reflection.
+// only the entities using a constraint annotation are mapped, the others
+// keep the reflection path.
+//
+@SupportedAnnotationTypes(EntityMapperProcessor.CONSTRAINT_PACKAGE + ".*")
+public class EntityMapperProcessor extends AbstractProcessor {
+
+    static final String BASE_ENTITY = "com.jungle.simpleorm.BaseEntity";
+    static final String CONSTRAINT_PACKAGE = "com.jungle.simpleorm.constraint";
+    static final String NOT_COLUMN_FIELD = "com.jungle.simpleorm.constraint.NotColumnField";
+    static final String USE_PARENT_FIELDS = "com.jungle.simpleorm.constraint.UseParentFields";
+    static final String MAPPER_SUFFIX = "$$ORMMapper";
+
+
+    static class Column {
+        final String mName;
+        final ColumnType mType;
+        final boolean mNullable;
+        final String mAccess;
+
+        Column(String name, ColumnType type, boolean nullable, String access) {
+            mName = name;
+            mType = type;
+            mNullable = nullable;
+            mAccess = access;
+        }
+    }
+
+
+    private Set<String> mGenerated = new HashSet<>();
+
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement baseEntity = processingEnv.getElementUtils().getTypeElement(BASE_ENTITY);
+        if (baseEntity == null) {
+            return false;
+        }
+
+        List<TypeElement> types = new ArrayList<>();
+        collectTypes(ElementFilter.typesIn(roundEnv.getRootElements()), types);
+
+        TypeMirror baseType = processingEnv.getTypeUtils().erasure(baseEntity.asType());
+        for (TypeElement type : types) {
+            if (isMappable(type, baseEntity, baseType) && usesConstraints(type, baseEntity)) {
+                generateMapper(type, baseEntity);
+            }
+        }
+
+        // never claim the annotations, other processors may need them.
+        return false;
+    }
+
+    private static void collectTypes(Iterable<TypeElement> from, List<TypeElement> result) {
+        for (TypeElement type : from) {
+            result.add(type);
+            collectTypes(ElementFilter.typesIn(type.getEnclosedElements()), result);
+        }
+    }
+
+    private boolean isMappable(TypeElement type, TypeElement baseEntity, TypeMirror baseType) {
+        if (type.getKind() != ElementKind.CLASS
+                || type.equals(baseEntity)
+                || !type.getTypeParameters().isEmpty()) {
+            return false;
+        }
+
+        Set<Modifier> modifiers = type.getModifiers();
+        if (modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+
+        if (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            return false;
+        }
+
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL
+                && type.getNestingKind() != NestingKind.MEMBER) {
+            return false;
+        }
+
+        if (!processingEnv.getTypeUtils().isAssignable(type.asType(), baseType)) {
+            return false;
+        }
+
+        //
+        // newEntity() needs a visible no-arg constructor.
+        //
+        for (ExecutableElement constructor
+                : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()
+                    && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //
+    // a constraint annotation on the entity, its parent classes or their fields.
+    //
+    private static boolean usesConstraints(TypeElement type, TypeElement baseEntity) {
+        for (TypeElement current = type;
+             current != null && !current.equals(baseEntity);
+             current = getSuperclass(current)) {
+
+            if (hasConstraint(current)) {
+                return true;
+            }
+
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (hasConstraint(field)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasConstraint(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().toString().startsWith(CONSTRAINT_PACKAGE + ".")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //
+    // same rules as EntityUtils.getEntityFields: public, non-static, not NotColumnField,
+    // including the inherited fields, from the parent class when UseParentFields.
+    // like Class.getFields(), a field hidden by the sub-class is still a column,
+    // read through a cast to its declaring class.
+    //
+    private List<Column> collectColumns(TypeElement type, TypeElement baseEntity) {
+        TypeElement entityType = type;
+        while (hasAnnotation(entityType, USE_PARENT_FIELDS)) {
+            entityType = getSuperclass(entityType);
+            if (entityType == null || entityType.equals(baseEntity)) {
+                return new ArrayList<>();
+            }
+        }
+
+        List<Column> columns = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (TypeElement current = entityType;
+             current != null && !current.equals(baseEntity);
+             current = getSuperclass(current)) {
+
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (!modifiers.contains(Modifier.PUBLIC)
+                        || modifiers.contains(Modifier.STATIC)
+                        || hasAnnotation(field, NOT_COLUMN_FIELD)) {
+                    continue;
+                }
+
+                String name = field.getSimpleName().toString();
+                String access = names.add(name)
+                        ? "entity." + name
+                        : "((" + current.getQualifiedName() + ") entity)." + name;
+
+                ColumnType columnType = ColumnType.of(field.asType());
+                if (columnType != null) {
+                    boolean nullable = field.asType().getKind() == TypeKind.DECLARED
+                            || field.asType().getKind() == TypeKind.ARRAY;
+                    columns.add(new Column(name, columnType, nullable, access));
+                }
+            }
+        }
+
+        return columns;
+    }
+
+    private static TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superType = type.getSuperclass();
+        if (superType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        return (TypeElement) ((DeclaredType) superType).asElement();
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void generateMapper(TypeElement type, TypeElement baseEntity) {
+        String qualifiedName = type.getQualifiedName().toString();
+        if (!mGenerated.add(qualifiedName)) {
+            return;
+        }
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed()
+                ? "" : packageElement.getQualifiedName().toString();
+
+        //
+        // binary name: Outer$Inner$$ORMMapper, matches EntityMappers.getMapper lookup.
+        //
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String mapperName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                + MAPPER_SUFFIX;
+
+        String entityName = packageName.isEmpty()
+                ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+
+        List<Column> columns = collectColumns(type, baseEntity);
+        String source = new MapperWriter(packageName, mapperName, entityName, columns).write();
+
+        String fileName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(fileName, type);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot generate " + fileName + ": " + e.getMessage(), type);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.compiler;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class MapperWriter {
+
+    private final String mPackageName;
+    private final String mMapperName;
+    private final String mEntityName;
+    private final List<EntityMapperProcessor.Column> mColumns;
+    private final StringBuilder mBuilder = new StringBuilder();
+
+
+    MapperWriter(String packageName, String mapperName,
+            String entityName, List<EntityMapperProcessor.Column> columns) {
+
+        mPackageName = packageName;
+        mMapperName = mapperName;
+        mEntityName = entityName;
+        mColumns = columns;
+    }
+
+    String write() {
+        line(0, "// Generated by android-simple-ORM-compiler. Do not modify.");
+        if (!mPackageName.isEmpty()) {
+            line(0, "package " + mPackageName + ";");
+        }
+
+        line(0, "");
+        line(0, "import android.content.ContentValues;");
+        line(0, "import android.database.Cursor;");
+        line(0, "import android.database.sqlite.SQLiteStatement;");
+        line(0, "import com.jungle.simpleorm.mapper.EntityMapper;");
+        line(0, "import com.jungle.simpleorm.mapper.EntityMappers;");
+        line(0, "");
+        line(0, "public final class " + mMapperName
+                + " implements EntityMapper<" + mEntityName + "> {");
+        line(0, "");
+
+        writeColumnNames();
+        writeNewEntity();
+        writeGetColumnNames();
+        writeGetColumnIndex();
+        writeReadCursor();
+        writeGetValue();
+        writeBindValue();
+        writePutValue();
+
+        line(0, "}");
+        return mBuilder.toString();
+    }
+
+    private void writeColumnNames() {
+        StringBuilder names = new StringBuilder();
+        for (EntityMapperProcessor.Column column : mColumns) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+
+            names.append('"').append(column.mName).append('"');
+        }
+
+        line(1, "private static final String[] COLUMNS = {" + names + "};");
+        line(0, "");
+    }
+
+    private void writeNewEntity() {
+        line(1, "@Override");
+        line(1, "public " + mEntityName + " newEntity() {");
+        line(2, "return new " + mEntityName + "();");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeGetColumnNames() {
+        line(1, "@Override");
+        line(1, "public String[] getColumnNames() {");
+        line(2, "return COLUMNS;");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeGetColumnIndex() {
+        line(1, "@Override");
+        line(1, "public int getColumnIndex(String columnName) {");
+        line(2, "switch (columnName) {");
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < mColumns.size(); ++i) {
+            String name = mColumns.get(i).mName;
+            if (!names.add(name)) {
+                // a hidden field, the name resolves to the sub-class field.
+                continue;
+            }
+
+            line(3, "case \"" + name + "\":");
+            line(4, "return " + i + ";");
+        }
+
+        line(3, "default:");
+        line(4, "return -1;");
+        line(2, "}");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeReadCursor() {
+        line(1, "@Override");
+        line(1, "public void readCursor(" + mEntityName
+                + " entity, Cursor cursor, int[] columnIndexes) {");
+        line(2, "int index;");
+        for (int i = 0; i < mColumns.size(); ++i) {
+            EntityMapperProcessor.Column column = mColumns.get(i);
+            line(2, "if ((index = columnIndexes[" + i + "]) != -1) {");
+            line(3, column.mAccess + " = " + column.mType.read("index") + ";");
+            line(2, "}");
+        }
+
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeGetValue() {
+        line(1, "@Override");
+        line(1, "public Object getValue(" + mEntityName + " entity, int column) {");
+        line(2, "switch (column) {");
+        for (int i = 0; i < mColumns.size(); ++i) {
+            line(3, "case " + i + ":");
+            line(4, "return " + mColumns.get(i).mAccess + ";");
+        }
+
+        line(3, "default:");
+        line(4, "return null;");
+        line(2, "}");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeBindValue() {
+        line(1, "@Override");
+        line(1, "public void bindValue(" + mEntityName
+                + " entity, int column, SQLiteStatement statement, int bindIndex) {");
+        line(2, "switch (column) {");
+        for (int i = 0; i < mColumns.size(); ++i) {
+            EntityMapperProcessor.Column column = mColumns.get(i);
+            String value = column.mAccess;
+
+            line(3, "case " + i + ":");
+            if (column.mNullable) {
+                line(4, "if (" + value + " == null) {");
+                line(5, "statement.bindNull(bindIndex);");
+                line(4, "} else {");
+                line(5, column.mType.bind("bindIndex", value));
+                line(4, "}");
+            } else {
+                line(4, column.mType.bind("bindIndex", value));
+            }
+
+            line(4, "break;");
+        }
+
+        line(3, "default:");
+        line(4, "statement.bindNull(bindIndex);");
+        line(4, "break;");
+        line(2, "}");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writePutValue() {
+        line(1, "@Override");
+        line(1, "public void putValue(" + mEntityName
+                + " entity, int column, ContentValues values) {");
+        line(2, "switch (column) {");
+        for (int i = 0; i < mColumns.size(); ++i) {
+            EntityMapperProcessor.Column column = mColumns.get(i);
+            line(3, "case " + i + ":");
+            line(4, "values.put(\"" + column.mName + "\", "
+                    + column.mType.putValue(column.mAccess) + ");");
+            line(4, "break;");
+        }
+
+        line(3, "default:");
+        line(4, "break;");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private void line(int indent, String text) {
+        if (!text.isEmpty()) {
+            for (int i = 0; i < indent; ++i) {
+                mBuilder.append("    ");
+            }
+
+            mBuilder.append(text);
+        }
+
+        mBuilder.append('\n');
+    }
+}
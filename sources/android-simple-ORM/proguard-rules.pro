@@ -15,3 +15,7 @@
 #-keepclassmembers class fqcn.of.javascript.interface.for.webview {
 #   public *;
 #}
+
+# The generated Entity$$ORMMapper classes are loaded by name through
+# EntityMappers.getMapper, keep them for the apps that enable minify.
+-keep class **$$ORMMapper { *; }
@@ -22,6 +22,7 @@ package com.jungle.simpleorm;
 
 import com.jungle.simpleorm.utils.EntityUtils;
 
+import java.lang.reflect.Field;
 import java.util.List;
 
 public abstract class BaseEntity {
@@ -32,10 +33,12 @@ public abstract class BaseEntity {
     public static enum State {
         New,            // new entity.
         Stored,         // entity stored in ORM.
+        Partial,        // entity loaded with only some of its columns.
         Removed,        // entity was removed.
     }
 
     private BaseEntity.State mState = BaseEntity.State.New;
+    private Object[] mSnapshot;
 
 
     public BaseEntity() {
@@ -55,14 +58,38 @@ public abstract class BaseEntity {
 
     public void setNew() {
         mState = State.New;
+        mSnapshot = null;
     }
 
     public void setStored() {
         mState = State.Stored;
+        mSnapshot = isDirtyTrackingEnabled() ? EntityUtils.takeSnapshot(this) : null;
+    }
+
+    public void setPartial() {
+        mState = State.Partial;
+        mSnapshot = null;
     }
 
     public void setRemoved() {
         mState = State.Removed;
+        mSnapshot = null;
+    }
+
+    public boolean isDirtyTrackingEnabled() {
+        return EntityUtils.isDirtyTrackingEnabled(getClass());
+    }
+
+    /**
+     * @return the non primary-key columns changed since the entity was loaded
+     * or stored, or null when the dirty state is unknown.
+     */
+    public List<Field> getDirtyFields() {
+        if (mState != State.Stored || mSnapshot == null) {
+            return null;
+        }
+
+        return EntityUtils.getDirtyFields(this, mSnapshot);
     }
 
     public String getTableName() {
@@ -107,8 +134,12 @@ public abstract class BaseEntity {
 
         StringBuilder builder = new StringBuilder();
         builder.append("IN (");
-        for (Object val : list) {
-            builder.append(String.valueOf(val)).append(", ");
+        for (int i = 0; i < list.size(); ++i) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(String.valueOf(list.get(i)));
         }
 
         builder.append(")");
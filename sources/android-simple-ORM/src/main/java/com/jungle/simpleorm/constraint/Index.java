@@ -0,0 +1,53 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.constraint;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//
+// CREATE [UNIQUE] INDEX IF NOT EXISTS name ON tbl (field [DESC], ...) [WHERE ...]
+//
+// on fields: the fields with the same `name` make one composite index, in declaration order;
+// unnamed ones get `idx_<table>_<field>`.
+// in `Indices`: `columns` lists the columns, each may end with ASC/DESC.
+//
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Index {
+
+    String name() default "";
+
+    String[] columns() default {};
+
+    boolean unique() default false;
+
+    boolean desc() default false;
+
+    //
+    // partial index condition, needs SQLite 3.8.0 (Android 5.0).
+    //
+    String where() default "";
+}
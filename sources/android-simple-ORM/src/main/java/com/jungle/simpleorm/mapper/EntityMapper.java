@@ -0,0 +1,50 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.mapper;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteStatement;
+import com.jungle.simpleorm.BaseEntity;
+
+//
+// implemented by the `Entity$$ORMMapper` classes which android-simple-ORM-compiler generates.
+// column indexes follow getColumnNames().
+//
+public interface EntityMapper<T extends BaseEntity> {
+
+    T newEntity();
+
+    String[] getColumnNames();
+
+    int getColumnIndex(String columnName);
+
+    //
+    // columnIndexes[column] is the cursor index of the column, -1 to skip it.
+    //
+    void readCursor(T entity, Cursor cursor, int[] columnIndexes);
+
+    Object getValue(T entity, int column);
+
+    void bindValue(T entity, int column, SQLiteStatement statement, int bindIndex);
+
+    void putValue(T entity, int column, ContentValues values);
+}
@@ -0,0 +1,95 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.mapper;
+
+import com.jungle.simpleorm.BaseEntity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class EntityMappers {
+
+    public static final String MAPPER_SUFFIX = "$$ORMMapper";
+
+
+    private static final Object NO_MAPPER = new Object();
+
+    private static ConcurrentMap<Class<?>, Object> mMappers = new ConcurrentHashMap<>();
+
+
+    @SuppressWarnings("unchecked")
+    public static EntityMapper<BaseEntity> getMapper(Class<? extends BaseEntity> clazz) {
+        Object mapper = mMappers.get(clazz);
+        if (mapper == null) {
+            mapper = loadMapper(clazz);
+            Object exist = mMappers.putIfAbsent(clazz, mapper);
+            if (exist != null) {
+                mapper = exist;
+            }
+        }
+
+        return mapper != NO_MAPPER ? (EntityMapper<BaseEntity>) mapper : null;
+    }
+
+    private static Object loadMapper(Class<? extends BaseEntity> clazz) {
+        try {
+            Class<?> mapperClazz = Class.forName(
+                    clazz.getName() + MAPPER_SUFFIX, true, clazz.getClassLoader());
+            if (EntityMapper.class.isAssignableFrom(mapperClazz)) {
+                return mapperClazz.newInstance();
+            }
+        } catch (ClassNotFoundException e) {
+            // no generated mapper, use reflection.
+        } catch (InstantiationException e) {
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return NO_MAPPER;
+    }
+
+    public static Byte[] toBoxedBytes(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+
+        Byte[] result = new Byte[value.length];
+        for (int i = 0; i < value.length; ++i) {
+            result[i] = value[i];
+        }
+
+        return result;
+    }
+
+    public static byte[] toPrimitiveBytes(Byte[] value) {
+        if (value == null) {
+            return null;
+        }
+
+        byte[] result = new byte[value.length];
+        for (int i = 0; i < value.length; ++i) {
+            result[i] = value[i] != null ? value[i] : 0;
+        }
+
+        return result;
+    }
+}
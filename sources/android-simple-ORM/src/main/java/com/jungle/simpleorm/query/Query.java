@@ -0,0 +1,438 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.query;
+
+import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.utils.EntityUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//
+// fluent SELECT builder, all values are `?` placeholders:
+//
+//     Query<Student> query = Query.from(Student.class)
+//             .where("age", Query.Op.GreaterOrEqual, 18)
+//             .whereIn("grade", grades)
+//             .orderByDesc("score")
+//             .limit(20);
+//
+// the SQL text only depends on the shape of the query (columns & operators),
+// it is cached by shape, so the same shape with other values reuses the same SQL
+// string, and SQLite reuses the compiled statement.
+//
+public class Query<T extends BaseEntity> {
+
+    public enum Op {
+        Equal("="),
+        NotEqual("<>"),
+        Less("<"),
+        LessOrEqual("<="),
+        Greater(">"),
+        GreaterOrEqual(">="),
+        Like("LIKE");
+
+        private final String mOperator;
+
+        Op(String operator) {
+            mOperator = operator;
+        }
+    }
+
+
+    public static final int DEFAULT_MAX_CACHED_SQL = 128;
+
+    private static final char CLAUSE_COMPARE = 'c';
+    private static final char CLAUSE_IN = 'i';
+    private static final char CLAUSE_NOT_IN = 'n';
+    private static final char CLAUSE_BETWEEN = 'b';
+    private static final char CLAUSE_NULL = 'u';
+    private static final char CLAUSE_NOT_NULL = 'v';
+
+
+    private static class Clause {
+        final boolean mIsOr;
+        final char mType;
+        final String mColumn;
+        final Op mOp;
+        final int mValueCount;
+
+        Clause(boolean isOr, char type, String column, Op op, int valueCount) {
+            mIsOr = isOr;
+            mType = type;
+            mColumn = column;
+            mOp = op;
+            mValueCount = valueCount;
+        }
+    }
+
+
+    private static final Map<String, String> mSqlCache =
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > DEFAULT_MAX_CACHED_SQL;
+                }
+            };
+
+
+    private Class<T> mClazz;
+    private String mTableName;
+    private List<Field> mColumnFields;
+    private List<Clause> mClauses = new ArrayList<>();
+    private List<String> mGroupBy = new ArrayList<>();
+    private List<String> mOrderBy = new ArrayList<>();
+    private List<Object> mArgs = new ArrayList<>();
+    private int mLimit = -1;
+    private int mOffset = -1;
+    private StringBuilder mShape = new StringBuilder();
+    private String mSql;
+
+
+    public static <T extends BaseEntity> Query<T> from(Class<T> clazz) {
+        return new Query<T>(clazz, EntityUtils.getTableName(clazz));
+    }
+
+    public static <T extends BaseEntity> Query<T> from(Class<T> clazz, String tableName) {
+        return new Query<T>(clazz, tableName);
+    }
+
+    private Query(Class<T> clazz, String tableName) {
+        if (clazz == null || tableName == null || tableName.length() == 0) {
+            throw new IllegalArgumentException("Query needs an entity class and table name.");
+        }
+
+        mClazz = clazz;
+        mTableName = tableName;
+        mColumnFields = EntityUtils.getColumnFields(clazz);
+        mShape.append(tableName).append('|').append(clazz.getName()).append('|');
+    }
+
+    public Class<T> getEntityClass() {
+        return mClazz;
+    }
+
+    public String getTableName() {
+        return mTableName;
+    }
+
+
+    //
+    // where, the clauses are joined by AND, or OR for the or*() ones, and grouped
+    // from left to right: where(a).or(b).and(c) is `(a OR b) AND c`.
+    //
+    public Query<T> where(String column, Op op, Object value) {
+        return addCompare(false, column, op, value);
+    }
+
+    public Query<T> or(String column, Op op, Object value) {
+        return addCompare(true, column, op, value);
+    }
+
+    public Query<T> whereIn(String column, Collection<?> values) {
+        return addIn(false, CLAUSE_IN, column, values);
+    }
+
+    public Query<T> orIn(String column, Collection<?> values) {
+        return addIn(true, CLAUSE_IN, column, values);
+    }
+
+    public Query<T> whereNotIn(String column, Collection<?> values) {
+        return addIn(false, CLAUSE_NOT_IN, column, values);
+    }
+
+    public Query<T> whereBetween(String column, Object low, Object high) {
+        checkValue(low);
+        checkValue(high);
+        addClause(new Clause(false, CLAUSE_BETWEEN, checkColumn(column), null, 2));
+        mArgs.add(low);
+        mArgs.add(high);
+        return this;
+    }
+
+    public Query<T> whereNull(String column) {
+        return addClause(new Clause(false, CLAUSE_NULL, checkColumn(column), null, 0));
+    }
+
+    public Query<T> whereNotNull(String column) {
+        return addClause(new Clause(false, CLAUSE_NOT_NULL, checkColumn(column), null, 0));
+    }
+
+
+    //
+    // group by & order by & limit
+    //
+    public Query<T> groupBy(String column) {
+        mGroupBy.add(checkColumn(column));
+        return changeShape('g', column);
+    }
+
+    public Query<T> orderBy(String column) {
+        mOrderBy.add(checkColumn(column));
+        return changeShape('o', column);
+    }
+
+    public Query<T> orderByDesc(String column) {
+        mOrderBy.add(checkColumn(column) + " DESC");
+        return changeShape('d', column);
+    }
+
+    public Query<T> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative.");
+        }
+
+        if (mLimit < 0) {
+            changeShape('l', null);
+        }
+
+        mLimit = limit;
+        return this;
+    }
+
+    public Query<T> offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative.");
+        }
+
+        if (mOffset < 0) {
+            changeShape('f', null);
+        }
+
+        mOffset = offset;
+        return this;
+    }
+
+
+    //
+    // the values in placeholder order: where values, then limit & offset.
+    //
+    public Object[] getArgs() {
+        int count = mArgs.size() + (mLimit >= 0 ? 1 : 0) + (mOffset >= 0 ? 1 : 0);
+        Object[] args = mArgs.toArray(new Object[count]);
+
+        int index = mArgs.size();
+        if (mLimit >= 0) {
+            args[index++] = mLimit;
+        }
+
+        if (mOffset >= 0) {
+            args[index] = mOffset;
+        }
+
+        return args;
+    }
+
+    public String getSql() {
+        if (mSql != null) {
+            return mSql;
+        }
+
+        String shape = mShape.toString();
+        synchronized (mSqlCache) {
+            mSql = mSqlCache.get(shape);
+        }
+
+        if (mSql == null) {
+            mSql = generateSql();
+            synchronized (mSqlCache) {
+                mSqlCache.put(shape, mSql);
+            }
+        }
+
+        return mSql;
+    }
+
+    @Override
+    public String toString() {
+        return getSql();
+    }
+
+    private String generateSql() {
+        StringBuilder builder = new StringBuilder("SELECT * FROM ");
+        builder.append(mTableName);
+        appendWhere(builder);
+
+        appendList(builder, " GROUP BY ", mGroupBy);
+        appendList(builder, " ORDER BY ", mOrderBy);
+
+        if (mLimit >= 0) {
+            builder.append(" LIMIT ?");
+        } else if (mOffset >= 0) {
+            // OFFSET needs a LIMIT, -1 is no limit.
+            builder.append(" LIMIT -1");
+        }
+
+        if (mOffset >= 0) {
+            builder.append(" OFFSET ?");
+        }
+
+        builder.append(';');
+        return builder.toString();
+    }
+
+    //
+    // AND binds tighter than OR in SQL, so an AND after an OR wraps all the
+    // clauses before it, to keep the left to right grouping.
+    //
+    private void appendWhere(StringBuilder builder) {
+        if (mClauses.isEmpty()) {
+            return;
+        }
+
+        StringBuilder where = new StringBuilder();
+        boolean hasOr = false;
+
+        for (int i = 0; i < mClauses.size(); ++i) {
+            Clause clause = mClauses.get(i);
+            if (i > 0) {
+                if (clause.mIsOr) {
+                    where.append(" OR ");
+                    hasOr = true;
+                } else {
+                    if (hasOr) {
+                        where.insert(0, '(').append(')');
+                        hasOr = false;
+                    }
+
+                    where.append(" AND ");
+                }
+            }
+
+            where.append(clause.mColumn);
+            switch (clause.mType) {
+                case CLAUSE_COMPARE:
+                    where.append(' ').append(clause.mOp.mOperator).append(" ?");
+                    break;
+                case CLAUSE_IN:
+                case CLAUSE_NOT_IN:
+                    where.append(clause.mType == CLAUSE_IN ? " IN (" : " NOT IN (");
+                    EntityUtils.appendPlaceholders(where, clause.mValueCount);
+                    where.append(')');
+                    break;
+                case CLAUSE_BETWEEN:
+                    where.append(" BETWEEN ? AND ?");
+                    break;
+                case CLAUSE_NULL:
+                    where.append(" IS NULL");
+                    break;
+                case CLAUSE_NOT_NULL:
+                    where.append(" IS NOT NULL");
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        builder.append(" WHERE ").append(where);
+    }
+
+    private static void appendList(StringBuilder builder, String prefix, List<String> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+
+        builder.append(prefix);
+        for (int i = 0; i < list.size(); ++i) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(list.get(i));
+        }
+    }
+
+    private Query<T> addCompare(boolean isOr, String column, Op op, Object value) {
+        if (op == null) {
+            throw new IllegalArgumentException("Query operator is null.");
+        }
+
+        checkValue(value);
+        addClause(new Clause(isOr, CLAUSE_COMPARE, checkColumn(column), op, 1));
+        mArgs.add(value);
+        return this;
+    }
+
+    private Query<T> addIn(boolean isOr, char type, String column, Collection<?> values) {
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("IN values of `" + column + "` are empty.");
+        }
+
+        for (Object value : values) {
+            checkValue(value);
+        }
+
+        addClause(new Clause(isOr, type, checkColumn(column), null, values.size()));
+        mArgs.addAll(values);
+        return this;
+    }
+
+    private Query<T> addClause(Clause clause) {
+        mClauses.add(clause);
+
+        //
+        // column names may end with digits, keep them apart from the operator or IN count.
+        //
+        mShape.append(clause.mIsOr ? '|' : '&').append(clause.mType).append(clause.mColumn);
+        if (clause.mOp != null) {
+            mShape.append(':').append(clause.mOp.ordinal());
+        } else if (clause.mType == CLAUSE_IN || clause.mType == CLAUSE_NOT_IN) {
+            mShape.append(':').append(clause.mValueCount);
+        }
+
+        mShape.append(',');
+        mSql = null;
+        return this;
+    }
+
+    private Query<T> changeShape(char type, String column) {
+        mShape.append(type);
+        if (column != null) {
+            mShape.append(column);
+        }
+
+        mShape.append(',');
+        mSql = null;
+        return this;
+    }
+
+    private String checkColumn(String column) {
+        for (Field f : mColumnFields) {
+            if (f.getName().equals(column)) {
+                return column;
+            }
+        }
+
+        throw new IllegalArgumentException(
+                "`" + column + "` is not a column of " + mClazz.getSimpleName() + ".");
+    }
+
+    private static void checkValue(Object value) {
+        if (value == null) {
+            // `= NULL` never matches, use whereNull() / whereNotNull().
+            throw new IllegalArgumentException("Query value is null, use whereNull().");
+        }
+    }
+}
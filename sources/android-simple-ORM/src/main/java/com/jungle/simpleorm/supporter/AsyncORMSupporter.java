@@ -0,0 +1,390 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import com.jungle.simpleorm.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncORMSupporter {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final long DEFAULT_FLUSH_WINDOW_MILLIS = 20;
+
+
+    public interface Callback {
+        //
+        // called on the writer thread after the transaction was committed.
+        //
+        void onComplete(BaseEntity entity, boolean success);
+    }
+
+
+    private static enum Operation {
+        InsertNew,
+        Replace,
+        Upsert,
+        Update,
+        Remove,
+        Flush,
+        Shutdown,
+    }
+
+
+    private static class WriteRequest extends FutureTask<Boolean> {
+
+        private static final Callable<Boolean> NOTHING = new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return false;
+            }
+        };
+
+        private Operation mOperation;
+        private BaseEntity mEntity;
+        private Callback mCallback;
+
+        WriteRequest(Operation operation, BaseEntity entity, Callback callback) {
+            super(NOTHING);
+
+            mOperation = operation;
+            mEntity = entity;
+            mCallback = callback;
+        }
+
+        boolean isBarrier() {
+            return mOperation == Operation.Flush || mOperation == Operation.Shutdown;
+        }
+
+        void complete(boolean success) {
+            set(success);
+            notifyCallback(success);
+        }
+
+        void fail(Throwable e) {
+            setException(e);
+            notifyCallback(false);
+        }
+
+        private void notifyCallback(boolean success) {
+            if (mCallback != null) {
+                mCallback.onComplete(mEntity, success);
+            }
+        }
+    }
+
+
+    private final ORMSupporter mSupporter;
+    private final BlockingQueue<WriteRequest> mQueue;
+    private final int mMaxBatchSize;
+    private final long mFlushWindowMillis;
+    private final List<WriteRequest> mBatch = new ArrayList<>();
+    private final Thread mWriterThread;
+    private volatile boolean mIsShutdown = false;
+    private volatile boolean mIsWriterStopped = false;
+
+
+    public AsyncORMSupporter(ORMSupporter supporter) {
+        this(supporter, DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_MAX_BATCH_SIZE, DEFAULT_FLUSH_WINDOW_MILLIS);
+    }
+
+    public AsyncORMSupporter(ORMSupporter supporter,
+            int queueCapacity, int maxBatchSize, long flushWindowMillis) {
+
+        mSupporter = supporter;
+        mQueue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        mMaxBatchSize = Math.max(maxBatchSize, 1);
+        mFlushWindowMillis = Math.max(flushWindowMillis, 0);
+
+        mWriterThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWriteLoop();
+            }
+        }, "ORM-AsyncWriter");
+
+        mWriterThread.setDaemon(true);
+        mWriterThread.start();
+    }
+
+    public ORMSupporter getSupporter() {
+        return mSupporter;
+    }
+
+    public int getPendingCount() {
+        return mQueue.size();
+    }
+
+    public boolean isShutdown() {
+        return mIsShutdown;
+    }
+
+    public Future<Boolean> insertNew(BaseEntity entity) {
+        return insertNew(entity, null);
+    }
+
+    public Future<Boolean> insertNew(BaseEntity entity, Callback callback) {
+        return enqueue(Operation.InsertNew, entity, callback);
+    }
+
+    public Future<Boolean> replace(BaseEntity entity) {
+        return replace(entity, null);
+    }
+
+    public Future<Boolean> replace(BaseEntity entity, Callback callback) {
+        return enqueue(Operation.Replace, entity, callback);
+    }
+
+    public Future<Boolean> upsert(BaseEntity entity) {
+        return upsert(entity, null);
+    }
+
+    public Future<Boolean> upsert(BaseEntity entity, Callback callback) {
+        return enqueue(Operation.Upsert, entity, callback);
+    }
+
+    public Future<Boolean> update(BaseEntity entity) {
+        return update(entity, null);
+    }
+
+    public Future<Boolean> update(BaseEntity entity, Callback callback) {
+        return enqueue(Operation.Update, entity, callback);
+    }
+
+    public Future<Boolean> remove(BaseEntity entity) {
+        return remove(entity, null);
+    }
+
+    public Future<Boolean> remove(BaseEntity entity, Callback callback) {
+        return enqueue(Operation.Remove, entity, callback);
+    }
+
+    //
+    // commit everything queued before this call, without waiting for the flush window.
+    //
+    public Future<Boolean> flushAsync() {
+        return enqueue(Operation.Flush, null, null);
+    }
+
+    public boolean flush() {
+        return await(flushAsync());
+    }
+
+    //
+    // pending writes are committed before the writer thread exits.
+    //
+    public boolean shutdown() {
+        if (mIsShutdown) {
+            return false;
+        }
+
+        mIsShutdown = true;
+        return await(put(new WriteRequest(Operation.Shutdown, null, null)));
+    }
+
+    private Future<Boolean> enqueue(Operation operation, BaseEntity entity, Callback callback) {
+        WriteRequest request = new WriteRequest(operation, entity, callback);
+        if (mIsShutdown) {
+            request.complete(false);
+            return request;
+        }
+
+        return put(request);
+    }
+
+    private Future<Boolean> put(WriteRequest request) {
+        try {
+            //
+            // blocks when the queue is full: back-pressure on the producers.
+            //
+            mQueue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.fail(e);
+            return request;
+        }
+
+        //
+        // a put blocked on the full queue can land after the writer's last drain,
+        // nobody would complete it, take it back out and reject it here.
+        //
+        if (mIsWriterStopped && mQueue.remove(request)) {
+            request.complete(false);
+        }
+
+        return request;
+    }
+
+    private static boolean await(Future<Boolean> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    private void runWriteLoop() {
+        boolean running = true;
+
+        while (running) {
+            try {
+                collectBatch();
+            } catch (InterruptedException e) {
+                // keep running until shutdown(), commit what was collected.
+            }
+
+            if (mBatch.isEmpty()) {
+                continue;
+            }
+
+            for (WriteRequest request : mBatch) {
+                if (request.mOperation == Operation.Shutdown) {
+                    running = false;
+                }
+            }
+
+            commitBatch();
+            mBatch.clear();
+        }
+
+        //
+        // requests which raced with shutdown() are never executed.
+        //
+        mIsWriterStopped = true;
+
+        WriteRequest request;
+        while ((request = mQueue.poll()) != null) {
+            request.complete(false);
+        }
+    }
+
+    private void collectBatch() throws InterruptedException {
+        WriteRequest request = mQueue.take();
+        mBatch.add(request);
+
+        final long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(mFlushWindowMillis);
+
+        while (!request.isBarrier() && mBatch.size() < mMaxBatchSize) {
+            long waitNanos = deadline - System.nanoTime();
+            request = waitNanos > 0
+                    ? mQueue.poll(waitNanos, TimeUnit.NANOSECONDS)
+                    : mQueue.poll();
+
+            if (request == null) {
+                break;
+            }
+
+            mBatch.add(request);
+        }
+    }
+
+    private void commitBatch() {
+        final int count = mBatch.size();
+        boolean[] results = new boolean[count];
+        boolean inTransaction = mSupporter.beginTransaction();
+
+        try {
+            for (int i = 0; i < count; ++i) {
+                results[i] = execute(mBatch.get(i));
+            }
+
+            if (inTransaction) {
+                mSupporter.setTransactionSuccessful();
+            }
+        } catch (RuntimeException e) {
+            //
+            // the transaction was rolled back, nothing of this batch was stored.
+            //
+            e.printStackTrace();
+            if (inTransaction) {
+                endTransaction();
+            }
+
+            for (WriteRequest request : mBatch) {
+                request.fail(e);
+            }
+
+            return;
+        }
+
+        if (inTransaction && !endTransaction()) {
+            for (WriteRequest request : mBatch) {
+                request.complete(false);
+            }
+
+            return;
+        }
+
+        for (int i = 0; i < count; ++i) {
+            mBatch.get(i).complete(results[i]);
+        }
+    }
+
+    private boolean endTransaction() {
+        try {
+            return mSupporter.endTransaction();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    private boolean execute(WriteRequest request) {
+        if (request.isCancelled()) {
+            return false;
+        }
+
+        BaseEntity entity = request.mEntity;
+        switch (request.mOperation) {
+            case InsertNew:
+                return mSupporter.insertNew(entity);
+            case Replace:
+                return mSupporter.replace(entity);
+            case Upsert:
+                return mSupporter.upsert(entity);
+            case Update:
+                return mSupporter.update(entity);
+            case Remove:
+                return mSupporter.remove(entity);
+            case Flush:
+            case Shutdown:
+                return true;
+        }
+
+        return false;
+    }
+}
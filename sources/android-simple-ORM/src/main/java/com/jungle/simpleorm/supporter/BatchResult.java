@@ -0,0 +1,72 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import com.jungle.simpleorm.BaseEntity;
+
+import java.util.Arrays;
+
+public class BatchResult {
+
+    private long[] mRowIds;
+    private boolean[] mSuccess;
+    private int mSuccessCount;
+
+
+    public BatchResult(int count) {
+        mRowIds = new long[count];
+        mSuccess = new boolean[count];
+        Arrays.fill(mRowIds, BaseEntity.INVALID_ID);
+    }
+
+    void setSuccess(int index, long rowId) {
+        if (!mSuccess[index]) {
+            mSuccess[index] = true;
+            ++mSuccessCount;
+        }
+
+        mRowIds[index] = rowId;
+    }
+
+    public int size() {
+        return mRowIds.length;
+    }
+
+    public long getRowId(int index) {
+        return mRowIds[index];
+    }
+
+    public boolean isSuccess(int index) {
+        return mSuccess[index];
+    }
+
+    public int getSuccessCount() {
+        return mSuccessCount;
+    }
+
+    public boolean isAllSuccess() {
+        return mSuccessCount == mRowIds.length;
+    }
+
+    public long[] getRowIds() {
+        return mRowIds.clone();
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
+
+//
+// rawQuery() binds every arg as TEXT, which never equals a REAL column value
+// and compares as a string against expressions. bind the args with their types.
+//
+class BindArgsCursorFactory implements SQLiteDatabase.CursorFactory {
+
+    private final Object[] mBindArgs;
+
+
+    BindArgsCursorFactory(Object[] bindArgs) {
+        mBindArgs = bindArgs;
+    }
+
+    @Override
+    public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver masterQuery,
+            String editTable, SQLiteQuery query) {
+
+        for (int i = 0; i < mBindArgs.length; ++i) {
+            SQLiteORMSupporter.bindValue(query, i + 1, mBindArgs[i]);
+        }
+
+        return new SQLiteCursor(masterQuery, editTable, query);
+    }
+}
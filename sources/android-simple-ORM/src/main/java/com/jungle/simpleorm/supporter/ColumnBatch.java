@@ -0,0 +1,208 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import android.database.Cursor;
+import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.utils.EntityUtils;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+//
+// numeric columns of up to `capacity` rows, one primitive array per column plus a null bitmap.
+// `ORMSupporter.scanColumns` refills the same arrays chunk by chunk, nothing is allocated per row.
+//
+// integer and boolean fields are read into long[], float and double fields into double[].
+//
+public class ColumnBatch {
+
+    public interface Visitor {
+        // return false to stop scanning. the batch is refilled after returning.
+        boolean visit(ColumnBatch batch);
+    }
+
+
+    private Class<? extends BaseEntity> mEntityClass;
+    private String[] mColumns;
+    private boolean[] mIsDouble;
+    private long[][] mLongs;
+    private double[][] mDoubles;
+    private long[][] mNulls;
+    private int mCapacity;
+    private int mRowCount;
+
+
+    public ColumnBatch(Class<? extends BaseEntity> clazz, String[] fieldNames, int capacity) {
+        if (fieldNames == null || fieldNames.length == 0) {
+            throw new IllegalArgumentException("No column to read.");
+        }
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        mEntityClass = clazz;
+        mColumns = fieldNames.clone();
+        mCapacity = capacity;
+        mIsDouble = new boolean[fieldNames.length];
+        mLongs = new long[fieldNames.length][];
+        mDoubles = new double[fieldNames.length][];
+        mNulls = new long[fieldNames.length][(capacity + 63) / 64];
+
+        List<Field> fields = EntityUtils.getColumnFields(clazz);
+        for (int i = 0; i < fieldNames.length; ++i) {
+            Field field = findField(fields, fieldNames[i]);
+            if (field == null) {
+                throw new IllegalArgumentException(String.format(
+                        "%s has no column named %s.", clazz.getName(), fieldNames[i]));
+            }
+
+            mIsDouble[i] = isDoubleType(field.getType());
+            if (mIsDouble[i]) {
+                mDoubles[i] = new double[capacity];
+            } else {
+                mLongs[i] = new long[capacity];
+            }
+        }
+    }
+
+    private static Field findField(List<Field> fields, String name) {
+        for (Field field : fields) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isDoubleType(Class<?> type) {
+        if (type == double.class || type == Double.class
+                || type == float.class || type == Float.class) {
+            return true;
+        }
+
+        if (type == long.class || type == Long.class
+                || type == int.class || type == Integer.class
+                || type == short.class || type == Short.class
+                || type == byte.class || type == Byte.class
+                || type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+
+        throw new IllegalArgumentException("Not a numeric column type: " + type.getName());
+    }
+
+    public Class<? extends BaseEntity> getEntityClass() {
+        return mEntityClass;
+    }
+
+    public String[] getColumns() {
+        return mColumns.clone();
+    }
+
+    public int getColumnCount() {
+        return mColumns.length;
+    }
+
+    public int getColumnIndex(String fieldName) {
+        for (int i = 0; i < mColumns.length; ++i) {
+            if (mColumns[i].equals(fieldName)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    //
+    // the rows filled in this chunk, the arrays are valid in [0, rowCount).
+    //
+    public int getRowCount() {
+        return mRowCount;
+    }
+
+    public boolean isDoubleColumn(int column) {
+        return mIsDouble[column];
+    }
+
+    //
+    // the backing arrays, not copied. null for a column of the other type.
+    //
+    public long[] getLongs(int column) {
+        return mLongs[column];
+    }
+
+    public double[] getDoubles(int column) {
+        return mDoubles[column];
+    }
+
+    public boolean isNull(int column, int row) {
+        return (mNulls[column][row >>> 6] & (1L << row)) != 0;
+    }
+
+    public long getLong(int column, int row) {
+        return mIsDouble[column] ? (long) mDoubles[column][row] : mLongs[column][row];
+    }
+
+    public double getDouble(int column, int row) {
+        return mIsDouble[column] ? mDoubles[column][row] : mLongs[column][row];
+    }
+
+    //
+    // reads the next rows of `cursor`, whose columns are `getColumns()` in order.
+    // returns false when there was no row left.
+    //
+    boolean fill(Cursor cursor) {
+        for (long[] nulls : mNulls) {
+            Arrays.fill(nulls, 0);
+        }
+
+        int row = 0;
+        while (row < mCapacity && cursor.moveToNext()) {
+            for (int column = 0; column < mColumns.length; ++column) {
+                if (cursor.isNull(column)) {
+                    mNulls[column][row >>> 6] |= 1L << row;
+                    if (mIsDouble[column]) {
+                        mDoubles[column][row] = 0;
+                    } else {
+                        mLongs[column][row] = 0;
+                    }
+                } else if (mIsDouble[column]) {
+                    mDoubles[column][row] = cursor.getDouble(column);
+                } else {
+                    mLongs[column][row] = cursor.getLong(column);
+                }
+            }
+
+            ++row;
+        }
+
+        mRowCount = row;
+        return row > 0;
+    }
+}
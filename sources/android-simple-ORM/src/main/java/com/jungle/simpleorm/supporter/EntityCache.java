@@ -0,0 +1,246 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+//
+// the second-level cache of @Cacheable entities, keyed by (table, primary key).
+// it keeps the column values read before the load hooks, not the entity,
+// every hit is loaded into a new entity of the class that was queried.
+// LRU evicted by the estimated size in bytes.
+//
+public class EntityCache {
+
+    public static final long DEFAULT_MAX_SIZE = 512 * 1024;
+
+
+    private static class RowKey {
+        final String mTableName;
+        final String mPrimary;
+
+        RowKey(String tableName, String primary) {
+            mTableName = tableName;
+            mPrimary = primary;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof RowKey)) {
+                return false;
+            }
+
+            RowKey other = (RowKey) o;
+            return mTableName.equals(other.mTableName) && mPrimary.equals(other.mPrimary);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mTableName.hashCode() + mPrimary.hashCode();
+        }
+    }
+
+
+    private static class Row {
+        final RowBindingPlan.RowValues mValues;
+        final int mSize;
+
+        Row(RowBindingPlan.RowValues values, int size) {
+            mValues = values;
+            mSize = size;
+        }
+    }
+
+
+    private long mMaxSize;
+    private long mSize;
+    private long mGeneration;
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+    private LinkedHashMap<RowKey, Row> mRows = new LinkedHashMap<>(16, 0.75f, true);
+    private Map<String, Integer> mTableRowCounts = new HashMap<>();
+
+
+    EntityCache(long maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    //
+    // changes on every invalidation, a load started before a change must not be put.
+    //
+    synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    synchronized RowBindingPlan.RowValues get(String tableName, String primary, Class<?> clazz) {
+        Row row = mRows.get(new RowKey(tableName, primary));
+        if (row == null || !row.mValues.isOf(clazz)) {
+            ++mMissCount;
+            return null;
+        }
+
+        ++mHitCount;
+        return row.mValues;
+    }
+
+    synchronized void put(String tableName, String primary,
+            RowBindingPlan.RowValues values, long generation) {
+        if (generation != mGeneration || mMaxSize <= 0) {
+            return;
+        }
+
+        int size = estimateSize(tableName, primary, values);
+        if (size > mMaxSize) {
+            return;
+        }
+
+        Row old = mRows.put(new RowKey(tableName, primary), new Row(values, size));
+        if (old != null) {
+            mSize -= old.mSize;
+        } else {
+            changeTableRowCount(tableName, 1);
+        }
+
+        mSize += size;
+        trimToSize(mMaxSize);
+    }
+
+    synchronized void invalidate(String tableName, String primary) {
+        ++mGeneration;
+        if (!mTableRowCounts.containsKey(tableName)) {
+            return;
+        }
+
+        Row row = mRows.remove(new RowKey(tableName, primary));
+        if (row != null) {
+            mSize -= row.mSize;
+            changeTableRowCount(tableName, -1);
+        }
+    }
+
+    synchronized void invalidate(String tableName) {
+        ++mGeneration;
+        if (!mTableRowCounts.containsKey(tableName)) {
+            return;
+        }
+
+        Iterator<Map.Entry<RowKey, Row>> iterator = mRows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RowKey, Row> entry = iterator.next();
+            if (entry.getKey().mTableName.equals(tableName)) {
+                mSize -= entry.getValue().mSize;
+                iterator.remove();
+            }
+        }
+
+        mTableRowCounts.remove(tableName);
+    }
+
+    synchronized Set<String> getTableNames() {
+        return new HashSet<>(mTableRowCounts.keySet());
+    }
+
+    public synchronized void clear() {
+        ++mGeneration;
+        mRows.clear();
+        mTableRowCounts.clear();
+        mSize = 0;
+    }
+
+    public synchronized void setMaxSize(long maxSize) {
+        mMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    public synchronized long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    public synchronized int getCount() {
+        return mRows.size();
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    private void trimToSize(long maxSize) {
+        Iterator<Map.Entry<RowKey, Row>> iterator = mRows.entrySet().iterator();
+        while (mSize > maxSize && iterator.hasNext()) {
+            Map.Entry<RowKey, Row> eldest = iterator.next();
+            mSize -= eldest.getValue().mSize;
+            changeTableRowCount(eldest.getKey().mTableName, -1);
+            iterator.remove();
+            ++mEvictionCount;
+        }
+    }
+
+    private void changeTableRowCount(String tableName, int delta) {
+        Integer count = mTableRowCounts.get(tableName);
+        int newCount = (count != null ? count : 0) + delta;
+        if (newCount > 0) {
+            mTableRowCounts.put(tableName, newCount);
+        } else {
+            mTableRowCounts.remove(tableName);
+        }
+    }
+
+    private static int estimateSize(
+            String tableName, String primary, RowBindingPlan.RowValues values) {
+        return 48 + 2 * (tableName.length() + primary.length()) + values.estimateSize();
+    }
+
+    static int estimateValueSize(Object value) {
+        if (value == null) {
+            return 4;
+        } else if (value instanceof String) {
+            return 40 + 2 * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else if (value instanceof Byte[]) {
+            return 16 + 4 * ((Byte[]) value).length;
+        }
+
+        return 16;
+    }
+}
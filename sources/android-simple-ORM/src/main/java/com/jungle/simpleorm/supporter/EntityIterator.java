@@ -0,0 +1,103 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import android.database.Cursor;
+import com.jungle.simpleorm.BaseEntity;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+//
+// streams the entities of a live Cursor, one entity per row.
+// closed automatically after the last row, call close() when stop early.
+//
+public class EntityIterator<T extends BaseEntity> implements Iterator<T>, Iterable<T>, Closeable {
+
+    private final Class<? extends BaseEntity> mClazz;
+    private Cursor mCursor;
+    private RowBindingPlan mPlan;
+    private boolean mHasNext = false;
+    private boolean mMoved = false;
+
+
+    EntityIterator(Class<? extends BaseEntity> clazz, Cursor cursor) {
+        mClazz = clazz;
+        mCursor = cursor;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (mCursor == null) {
+            return false;
+        }
+
+        if (!mMoved) {
+            mHasNext = mCursor.moveToNext();
+            mMoved = true;
+
+            if (!mHasNext) {
+                close();
+            }
+        }
+
+        return mHasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        if (mPlan == null) {
+            mPlan = RowBindingPlan.obtain(mClazz, mCursor);
+        }
+
+        mMoved = false;
+        return mPlan.readEntity(mCursor);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("EntityIterator is read-only.");
+    }
+
+    public boolean isClosed() {
+        return mCursor == null;
+    }
+
+    @Override
+    public void close() {
+        if (mCursor != null) {
+            mCursor.close();
+            mCursor = null;
+        }
+
+        mHasNext = false;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import java.util.Arrays;
+
+//
+// the rows of an aggregate grouped by one column, in ascending key order.
+// keys are the raw column values: Long, Double, String, byte[] or null.
+//
+public class GroupedResult {
+
+    private Object[] mKeys;
+    private long[] mLongKeys;
+    private double[] mValues;
+    private boolean mIsLongKeyed;
+
+
+    GroupedResult(Object[] keys, double[] values) {
+        mKeys = keys;
+        mValues = values;
+        mLongKeys = new long[keys.length];
+        mIsLongKeyed = true;
+
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] instanceof Long) {
+                mLongKeys[i] = (Long) keys[i];
+            } else {
+                mIsLongKeyed = false;
+            }
+        }
+    }
+
+    public int size() {
+        return mKeys.length;
+    }
+
+    public Object getKey(int index) {
+        return mKeys[index];
+    }
+
+    //
+    // 0 for a key that is not an integer.
+    //
+    public long getLongKey(int index) {
+        return mLongKeys[index];
+    }
+
+    public double getValue(int index) {
+        return mValues[index];
+    }
+
+    public long getLongValue(int index) {
+        return (long) mValues[index];
+    }
+
+    //
+    // whether every key is an integer, then `get(long, double)` can be used.
+    //
+    public boolean isLongKeyed() {
+        return mIsLongKeyed;
+    }
+
+    public double get(long key, double defaultValue) {
+        if (!mIsLongKeyed) {
+            return defaultValue;
+        }
+
+        int index = Arrays.binarySearch(mLongKeys, key);
+        return index >= 0 ? mValues[index] : defaultValue;
+    }
+
+    public long[] getLongKeys() {
+        return mLongKeys.clone();
+    }
+
+    public double[] getValues() {
+        return mValues.clone();
+    }
+}
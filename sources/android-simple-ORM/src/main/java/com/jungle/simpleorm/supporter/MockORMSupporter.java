@@ -23,8 +23,11 @@ package com.jungle.simpleorm.supporter;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.query.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class MockORMSupporter implements ORMSupporter {
 
@@ -66,6 +69,11 @@ public class MockORMSupporter implements ORMSupporter {
         return false;
     }
 
+    @Override
+    public boolean createTables(Class<?>... entityClasses) {
+        return false;
+    }
+
     @Override
     public boolean drop(Class<? extends BaseEntity> clazz) {
         return false;
@@ -97,6 +105,66 @@ public class MockORMSupporter implements ORMSupporter {
         return 0;
     }
 
+    @Override
+    public double querySum(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public double queryMin(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public double queryMax(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public double queryAvg(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public double queryTotal(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public long queryMinLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public long queryMaxLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public long querySumLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
+    @Override
+    public GroupedResult queryGroupedSum(Class<? extends BaseEntity> clazz,
+            String groupField, String sumField, String condition, Object[] bindArgs) {
+        return null;
+    }
+
+    @Override
+    public GroupedResult queryGroupedCount(Class<? extends BaseEntity> clazz,
+            String groupField, String condition, Object[] bindArgs) {
+        return null;
+    }
+
     @Override
     public <T> List<T> queryPrimaryKeyList(
             Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz) {
@@ -110,12 +178,43 @@ public class MockORMSupporter implements ORMSupporter {
         return null;
     }
 
+    @Override
+    public <T> List<T> queryPrimaryKeyList(
+            Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz,
+            String condition, Object[] bindArgs, String constraint) {
+        return null;
+    }
+
     @Override
     public <T> List<T> queryPrimaryKeyList(
             BaseEntity entity, Class<T> primaryKeyClazz) {
         return null;
     }
 
+    @Override
+    public long[] queryPrimaryKeysAsLongs(
+            Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs) {
+        return null;
+    }
+
+    @Override
+    public long[] queryColumnAsLongs(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return null;
+    }
+
+    @Override
+    public int[] queryColumnAsInts(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return null;
+    }
+
+    @Override
+    public double[] queryColumnAsDoubles(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+        return null;
+    }
+
     @Override
     public int queryCount(Class<? extends BaseEntity> clazz) {
         return 0;
@@ -126,6 +225,11 @@ public class MockORMSupporter implements ORMSupporter {
         return 0;
     }
 
+    @Override
+    public int queryCount(Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
     @Override
     public int queryCount(String tableName) {
         return 0;
@@ -136,6 +240,11 @@ public class MockORMSupporter implements ORMSupporter {
         return 0;
     }
 
+    @Override
+    public int queryCount(String tableName, String condition, Object[] bindArgs) {
+        return 0;
+    }
+
     @Override
     public boolean updateFields(String tableName, String updateSql) {
         return false;
@@ -164,12 +273,25 @@ public class MockORMSupporter implements ORMSupporter {
         return null;
     }
 
+    @Override
+    public <K, T extends BaseEntity> Map<K, T> queryByPrimaryKeys(
+            Class<? extends BaseEntity> clazz, Collection<K> primaryKeys) {
+        return null;
+    }
+
     @Override
     public <T extends BaseEntity> List<T> queryByCondition(
             Class<? extends BaseEntity> clazz, String condition, String constraint) {
         return null;
     }
 
+    @Override
+    public <T extends BaseEntity> List<T> queryByCondition(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, String constraint) {
+        return null;
+    }
+
     @Override
     public <T extends BaseEntity> List<T> query(
             Class<? extends BaseEntity> clazz, int count) {
@@ -182,6 +304,25 @@ public class MockORMSupporter implements ORMSupporter {
         return null;
     }
 
+    @Override
+    public <T extends BaseEntity> List<T> query(
+            Class<? extends BaseEntity> clazz, String[] columns,
+            String condition, Object[] bindArgs) {
+        return null;
+    }
+
+    @Override
+    public <D> List<D> queryProjection(
+            Class<? extends BaseEntity> clazz, Class<D> dtoClazz,
+            String[] columns, String condition, Object[] bindArgs) {
+        return null;
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> query(Query<T> query) {
+        return null;
+    }
+
     @Override
     public <T extends BaseEntity> T queryByPosition(
             Class<? extends BaseEntity> clazz, String tableName, int position) {
@@ -200,6 +341,13 @@ public class MockORMSupporter implements ORMSupporter {
         return null;
     }
 
+    @Override
+    public <T extends BaseEntity> List<T> queryByConditionWithTableName(
+            Class<? extends BaseEntity> clazz, String tableName,
+            String condition, Object[] bindArgs, String constraint) {
+        return null;
+    }
+
     @Override
     public <T extends BaseEntity> List<T> query(
             Class<? extends BaseEntity> clazz, String tableName) {
@@ -218,6 +366,63 @@ public class MockORMSupporter implements ORMSupporter {
         return null;
     }
 
+    @Override
+    public <T extends BaseEntity> EntityIterator<T> iterate(Class<? extends BaseEntity> clazz) {
+        return null;
+    }
+
+    @Override
+    public <T extends BaseEntity> EntityIterator<T> iterate(
+            Class<? extends BaseEntity> clazz, String condition, String constraint) {
+        return null;
+    }
+
+    @Override
+    public <T extends BaseEntity> EntityIterator<T> iterate(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, String constraint) {
+        return null;
+    }
+
+    @Override
+    public <T extends BaseEntity> boolean forEach(
+            Class<? extends BaseEntity> clazz, String condition, Visitor<T> visitor) {
+        return false;
+    }
+
+    @Override
+    public <T extends BaseEntity> boolean forEach(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, Visitor<T> visitor) {
+        return false;
+    }
+
+    @Override
+    public boolean scanColumns(ColumnBatch batch,
+            String condition, Object[] bindArgs, ColumnBatch.Visitor visitor) {
+        return false;
+    }
+
+    @Override
+    public <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, PageToken after, int pageSize) {
+        return null;
+    }
+
+    @Override
+    public <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, String[] orderColumns,
+            String condition, PageToken after, int pageSize) {
+        return null;
+    }
+
+    @Override
+    public <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, String[] orderColumns,
+            String condition, Object[] bindArgs, PageToken after, int pageSize) {
+        return null;
+    }
+
     @Override
     public boolean remove(BaseEntity entity) {
         return false;
@@ -228,11 +433,21 @@ public class MockORMSupporter implements ORMSupporter {
         return false;
     }
 
+    @Override
+    public boolean remove(Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs) {
+        return false;
+    }
+
     @Override
     public boolean remove(String tableName, String condition) {
         return false;
     }
 
+    @Override
+    public boolean remove(String tableName, String condition, Object[] bindArgs) {
+        return false;
+    }
+
     @Override
     public boolean removeAll(Class<? extends BaseEntity> clazz) {
         return false;
@@ -248,6 +463,12 @@ public class MockORMSupporter implements ORMSupporter {
         return false;
     }
 
+    @Override
+    public boolean removeByPrimaryKeys(
+            Class<? extends BaseEntity> clazz, Collection<?> primaryKeys) {
+        return false;
+    }
+
     @Override
     public boolean insertNew(BaseEntity entity) {
         return false;
@@ -258,6 +479,11 @@ public class MockORMSupporter implements ORMSupporter {
         return false;
     }
 
+    @Override
+    public boolean upsert(BaseEntity entity) {
+        return false;
+    }
+
     @Override
     public boolean update(BaseEntity entity) {
         return false;
@@ -267,4 +493,39 @@ public class MockORMSupporter implements ORMSupporter {
     public boolean update(BaseEntity entity, String condition) {
         return false;
     }
+
+    @Override
+    public boolean update(BaseEntity entity, String condition, Object[] bindArgs) {
+        return false;
+    }
+
+    @Override
+    public BatchResult insertAll(Collection<? extends BaseEntity> entities) {
+        return null;
+    }
+
+    @Override
+    public BatchResult insertAll(Collection<? extends BaseEntity> entities, int chunkSize) {
+        return null;
+    }
+
+    @Override
+    public BatchResult replaceAll(Collection<? extends BaseEntity> entities) {
+        return null;
+    }
+
+    @Override
+    public BatchResult replaceAll(Collection<? extends BaseEntity> entities, int chunkSize) {
+        return null;
+    }
+
+    @Override
+    public BatchResult upsertAll(Collection<? extends BaseEntity> entities) {
+        return null;
+    }
+
+    @Override
+    public BatchResult upsertAll(Collection<? extends BaseEntity> entities, int chunkSize) {
+        return null;
+    }
 }
@@ -28,6 +28,8 @@ public class ORMDatabaseOpenHelper extends SQLiteOpenHelper {
 
     private ORMSupporter mOrmSupporter;
     private ORMDatabaseListener mDatabaseListener;
+    private boolean mWriteAheadLogging;
+    private boolean mWriteAheadLoggingEnabled;
 
 
     public ORMDatabaseOpenHelper(
@@ -36,10 +38,36 @@ public class ORMDatabaseOpenHelper extends SQLiteOpenHelper {
             SQLiteORMSupporter supporter,
             ORMDatabaseListener listener) {
 
+        this(context, name, version, supporter, listener, false);
+    }
+
+    public ORMDatabaseOpenHelper(
+            Context context,
+            String name, int version,
+            SQLiteORMSupporter supporter,
+            ORMDatabaseListener listener,
+            boolean writeAheadLogging) {
+
         super(context, name, null, version);
 
         mOrmSupporter = supporter;
         mDatabaseListener = listener;
+        mWriteAheadLogging = writeAheadLogging;
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+
+        // called out of the create/upgrade transaction, WAL can't be switched inside one.
+        // isWriteAheadLoggingEnabled() is API 16, keep what enableWriteAheadLogging() returned.
+        if (mWriteAheadLogging && !db.isReadOnly()) {
+            mWriteAheadLoggingEnabled = db.enableWriteAheadLogging();
+        }
+    }
+
+    public boolean isWriteAheadLoggingEnabled() {
+        return mWriteAheadLoggingEnabled;
     }
 
     @Override
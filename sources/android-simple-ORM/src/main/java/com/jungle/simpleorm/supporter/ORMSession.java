@@ -0,0 +1,369 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.constraint.AutoIncrement;
+import com.jungle.simpleorm.query.Query;
+import com.jungle.simpleorm.utils.EntityUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//
+// a unit of work over an ORMSupporter with an identity map keyed by (table, class, primary key):
+// one row is loaded as one instance within the session, and the primary key lookups
+// which hit the map skip the database.
+//
+// the loaded instances are not refreshed, use evict() / clear() to reload.
+// a session is not thread safe, use it on one thread.
+//
+public class ORMSession {
+
+    private static class IdentityKey {
+        private final String mTableName;
+        private final Class<?> mClazz;
+        private final List<String> mPrimary;
+
+        IdentityKey(String tableName, Class<?> clazz, List<String> primary) {
+            mTableName = tableName;
+            mClazz = clazz;
+            mPrimary = primary;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof IdentityKey)) {
+                return false;
+            }
+
+            IdentityKey other = (IdentityKey) o;
+            return mClazz == other.mClazz
+                    && mTableName.equals(other.mTableName)
+                    && mPrimary.equals(other.mPrimary);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * mTableName.hashCode() + mClazz.hashCode()) + mPrimary.hashCode();
+        }
+    }
+
+
+    private ORMSupporter mSupporter;
+    private Map<IdentityKey, BaseEntity> mIdentityMap = new HashMap<>();
+
+
+    public ORMSession(ORMSupporter supporter) {
+        mSupporter = supporter;
+    }
+
+    public ORMSupporter getSupporter() {
+        return mSupporter;
+    }
+
+    public int size() {
+        return mIdentityMap.size();
+    }
+
+    public void clear() {
+        mIdentityMap.clear();
+    }
+
+
+    //
+    // query
+    //
+    public <T extends BaseEntity> T queryByPrimary(
+            Class<? extends BaseEntity> clazz, Object primary) {
+
+        if (primary == null) {
+            return null;
+        }
+
+        T exist = get(clazz, getIdentityKey(clazz, primary));
+        if (exist != null) {
+            return exist;
+        }
+
+        T entity = mSupporter.queryByPrimary(clazz, primary);
+        return attach(clazz, entity);
+    }
+
+    public <K, T extends BaseEntity> Map<K, T> queryByPrimaryKeys(
+            Class<? extends BaseEntity> clazz, Collection<K> primaryKeys) {
+
+        if (primaryKeys == null) {
+            return null;
+        }
+
+        //
+        // only the keys missing in the map go to the database.
+        //
+        Map<K, T> result = new LinkedHashMap<K, T>();
+        List<K> missing = new ArrayList<K>();
+
+        for (K primary : primaryKeys) {
+            if (primary == null) {
+                continue;
+            }
+
+            T exist = get(clazz, getIdentityKey(clazz, primary));
+            if (exist != null) {
+                result.put(primary, exist);
+            } else {
+                missing.add(primary);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<K, T> loaded = mSupporter.queryByPrimaryKeys(clazz, missing);
+            if (loaded != null) {
+                for (Map.Entry<K, T> entry : loaded.entrySet()) {
+                    result.put(entry.getKey(), attach(clazz, entry.getValue()));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public <T extends BaseEntity> List<T> query(Class<? extends BaseEntity> clazz) {
+        List<T> result = mSupporter.query(clazz);
+        return attachAll(clazz, result);
+    }
+
+    public <T extends BaseEntity> List<T> queryByCondition(
+            Class<? extends BaseEntity> clazz, String condition, String constraint) {
+
+        List<T> result = mSupporter.queryByCondition(clazz, condition, constraint);
+        return attachAll(clazz, result);
+    }
+
+    public <T extends BaseEntity> List<T> queryByCondition(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, String constraint) {
+
+        List<T> result = mSupporter.queryByCondition(clazz, condition, bindArgs, constraint);
+        return attachAll(clazz, result);
+    }
+
+    public <T extends BaseEntity> List<T> query(Query<T> query) {
+        List<T> result = mSupporter.query(query);
+        return query != null ? attachAll(query.getEntityClass(), result) : result;
+    }
+
+
+    //
+    // write, the stored entities join the identity map.
+    //
+    public boolean insertNew(BaseEntity entity) {
+        return store(entity, mSupporter.insertNew(entity));
+    }
+
+    public boolean replace(BaseEntity entity) {
+        return store(entity, mSupporter.replace(entity));
+    }
+
+    public boolean upsert(BaseEntity entity) {
+        return store(entity, mSupporter.upsert(entity));
+    }
+
+    public boolean update(BaseEntity entity) {
+        return store(entity, mSupporter.update(entity));
+    }
+
+    public boolean remove(BaseEntity entity) {
+        boolean success = mSupporter.remove(entity);
+        if (success) {
+            evict(entity);
+        }
+
+        return success;
+    }
+
+    public boolean remove(Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs) {
+        boolean success = mSupporter.remove(clazz, condition, bindArgs);
+        if (success) {
+            // which rows were removed is unknown, forget the whole class.
+            evictAll(clazz);
+        }
+
+        return success;
+    }
+
+
+    //
+    // identity map
+    //
+    public boolean contains(BaseEntity entity) {
+        if (entity == null) {
+            return false;
+        }
+
+        IdentityKey key = getIdentityKey(entity.getClass(), entity);
+        return key != null && mIdentityMap.get(key) == entity;
+    }
+
+    public void evict(BaseEntity entity) {
+        if (entity == null) {
+            return;
+        }
+
+        IdentityKey key = getIdentityKey(entity.getClass(), entity);
+        if (key != null && mIdentityMap.get(key) == entity) {
+            mIdentityMap.remove(key);
+        }
+    }
+
+    public void evict(Class<? extends BaseEntity> clazz, Object primary) {
+        if (primary != null) {
+            IdentityKey key = getIdentityKey(clazz, primary);
+            if (key != null) {
+                mIdentityMap.remove(key);
+            }
+        }
+    }
+
+    public void evictAll(Class<? extends BaseEntity> clazz) {
+        Iterator<IdentityKey> iterator = mIdentityMap.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().mClazz == clazz) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean store(BaseEntity entity, boolean success) {
+        if (success) {
+            IdentityKey key = getIdentityKey(entity.getClass(), entity);
+            if (key != null) {
+                mIdentityMap.put(key, entity);
+            }
+        }
+
+        return success;
+    }
+
+    //
+    // the map may hold another class for the same key, never hand it out as this one.
+    //
+    @SuppressWarnings("unchecked")
+    private <T extends BaseEntity> T get(Class<? extends BaseEntity> clazz, IdentityKey key) {
+        BaseEntity exist = key != null ? mIdentityMap.get(key) : null;
+        return clazz.isInstance(exist) ? (T) exist : null;
+    }
+
+    //
+    // the instance already in the map wins, so one row is one instance.
+    //
+    private <T extends BaseEntity> T attach(Class<? extends BaseEntity> clazz, T entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        IdentityKey key = getIdentityKey(clazz, entity);
+        if (key == null) {
+            return entity;
+        }
+
+        T exist = get(clazz, key);
+        if (exist != null) {
+            return exist;
+        }
+
+        mIdentityMap.put(key, entity);
+        return entity;
+    }
+
+    private <T extends BaseEntity> List<T> attachAll(
+            Class<? extends BaseEntity> clazz, List<T> entities) {
+
+        if (entities != null) {
+            for (int i = 0; i < entities.size(); ++i) {
+                entities.set(i, attach(clazz, entities.get(i)));
+            }
+        }
+
+        return entities;
+    }
+
+    private static IdentityKey getIdentityKey(
+            Class<? extends BaseEntity> clazz, Object primary) {
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (tableName == null) {
+            return null;
+        }
+
+        return new IdentityKey(tableName, clazz,
+                Collections.singletonList(String.valueOf(primary)));
+    }
+
+    //
+    // keyed by the table of the instance, sharded tables may hold the same key.
+    //
+    private static IdentityKey getIdentityKey(
+            Class<? extends BaseEntity> clazz, BaseEntity entity) {
+
+        List<Field> keys = EntityUtils.getPrimaryKeyFields(clazz);
+        String tableName = entity.getTableName();
+        if (keys.isEmpty() || tableName == null) {
+            return null;
+        }
+
+        try {
+            List<String> primary = new ArrayList<String>(keys.size());
+            for (int i = 0; i < keys.size(); ++i) {
+                Field key = keys.get(i);
+                Object value = key.get(entity);
+                if (value == null) {
+                    return null;
+                }
+
+                if (key.isAnnotationPresent(AutoIncrement.class) && value instanceof Number
+                        && ((Number) value).longValue() == BaseEntity.INVALID_ID) {
+                    // not assigned yet.
+                    return null;
+                }
+
+                primary.add(String.valueOf(value));
+            }
+
+            return new IdentityKey(tableName, clazz, primary);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+}
@@ -23,11 +23,24 @@ package com.jungle.simpleorm.supporter;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.query.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+//
+// the `condition` of every query/remove/update can use `?` placeholders,
+// pass the values as bindArgs so the same SQL text can be reused.
+//
 public interface ORMSupporter {
 
+    interface Visitor<T extends BaseEntity> {
+        // return false to stop visiting.
+        boolean visit(T entity);
+    }
+
+
     void attachDatabase(SQLiteDatabase db);
 
     boolean isClosed();
@@ -52,6 +65,11 @@ public interface ORMSupporter {
 
     boolean createTable(BaseEntity entity);
 
+    //
+    // creates the tables of several entity classes in one transaction, all or none.
+    //
+    boolean createTables(Class<?>... entityClasses);
+
 
     //
     // dropTable
@@ -77,9 +95,29 @@ public interface ORMSupporter {
             Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz,
             String condition, String constraint);
 
+    <T> List<T> queryPrimaryKeyList(
+            Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz,
+            String condition, Object[] bindArgs, String constraint);
+
     <T> List<T> queryPrimaryKeyList(
             BaseEntity entity, Class<T> primaryKeyClazz);
 
+    //
+    // one column read straight into a primitive array, without boxing every row.
+    // NULL is read as 0, null is returned when the query fails.
+    //
+    long[] queryPrimaryKeysAsLongs(
+            Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs);
+
+    long[] queryColumnAsLongs(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    int[] queryColumnAsInts(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    double[] queryColumnAsDoubles(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
     //
     // raw query
     //
@@ -90,6 +128,43 @@ public interface ORMSupporter {
     //
     double querySum(Class<? extends BaseEntity> clazz, String fieldName, String condition);
 
+    double querySum(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    //
+    // aggregates computed by SQLite, 0 when no row matches.
+    // `queryTotal` is `TOTAL()`, always a float; the `Long` ones read integers without rounding.
+    //
+    double queryMin(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    double queryMax(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    double queryAvg(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    double queryTotal(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    long queryMinLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    long queryMaxLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    long querySumLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs);
+
+    //
+    // SELECT groupField, TOTAL(sumField) ... GROUP BY groupField ORDER BY groupField
+    //
+    GroupedResult queryGroupedSum(Class<? extends BaseEntity> clazz,
+            String groupField, String sumField, String condition, Object[] bindArgs);
+
+    GroupedResult queryGroupedCount(Class<? extends BaseEntity> clazz,
+            String groupField, String condition, Object[] bindArgs);
+
     //
     // queryCount
     //
@@ -97,10 +172,14 @@ public interface ORMSupporter {
 
     int queryCount(Class<? extends BaseEntity> clazz, String condition);
 
+    int queryCount(Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs);
+
     int queryCount(String tableName);
 
     int queryCount(String tableName, String condition);
 
+    int queryCount(String tableName, String condition, Object[] bindArgs);
+
 
     //
     // updateFields
@@ -122,9 +201,16 @@ public interface ORMSupporter {
     <T extends BaseEntity> T queryByPrimary(
             Class<? extends BaseEntity> clazz, Object primary);
 
+    <K, T extends BaseEntity> Map<K, T> queryByPrimaryKeys(
+            Class<? extends BaseEntity> clazz, Collection<K> primaryKeys);
+
     <T extends BaseEntity> List<T> queryByCondition(
             Class<? extends BaseEntity> clazz, String condition, String constraint);
 
+    <T extends BaseEntity> List<T> queryByCondition(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, String constraint);
+
     <T extends BaseEntity> List<T> query(
             Class<? extends BaseEntity> clazz, int count);
 
@@ -132,6 +218,25 @@ public interface ORMSupporter {
             Class<? extends BaseEntity> clazz, int index, int count);
 
 
+    //
+    // projection, load only the given columns, the other fields keep their default value.
+    // the entities are Partial, update() refuses them.
+    //
+    <T extends BaseEntity> List<T> query(
+            Class<? extends BaseEntity> clazz, String[] columns,
+            String condition, Object[] bindArgs);
+
+    <D> List<D> queryProjection(
+            Class<? extends BaseEntity> clazz, Class<D> dtoClazz,
+            String[] columns, String condition, Object[] bindArgs);
+
+
+    //
+    // query by the fluent Query builder.
+    //
+    <T extends BaseEntity> List<T> query(Query<T> query);
+
+
     //
     // query by table name
     //
@@ -144,6 +249,10 @@ public interface ORMSupporter {
     <T extends BaseEntity> List<T> queryByConditionWithTableName(
             Class<? extends BaseEntity> clazz, String tableName, String condition, String constraint);
 
+    <T extends BaseEntity> List<T> queryByConditionWithTableName(
+            Class<? extends BaseEntity> clazz, String tableName,
+            String condition, Object[] bindArgs, String constraint);
+
     <T extends BaseEntity> List<T> query(
             Class<? extends BaseEntity> clazz, String tableName);
 
@@ -154,6 +263,48 @@ public interface ORMSupporter {
             Class<? extends BaseEntity> clazz, String tableName, int index, int count);
 
 
+    //
+    // iterate, load one entity per row, close the iterator when stop early.
+    //
+    <T extends BaseEntity> EntityIterator<T> iterate(Class<? extends BaseEntity> clazz);
+
+    <T extends BaseEntity> EntityIterator<T> iterate(
+            Class<? extends BaseEntity> clazz, String condition, String constraint);
+
+    <T extends BaseEntity> EntityIterator<T> iterate(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, String constraint);
+
+    <T extends BaseEntity> boolean forEach(
+            Class<? extends BaseEntity> clazz, String condition, Visitor<T> visitor);
+
+    <T extends BaseEntity> boolean forEach(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, Visitor<T> visitor);
+
+    //
+    // columnar scan, refills `batch` with the next rows and visits it, chunk by chunk.
+    //
+    boolean scanColumns(ColumnBatch batch,
+            String condition, Object[] bindArgs, ColumnBatch.Visitor visitor);
+
+
+    //
+    // keyset paging, continue after the token of the previous page, null for the first page.
+    // ordered by orderColumns (ascending) then the primary key, default by the primary key.
+    //
+    <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, PageToken after, int pageSize);
+
+    <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, String[] orderColumns,
+            String condition, PageToken after, int pageSize);
+
+    <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, String[] orderColumns,
+            String condition, Object[] bindArgs, PageToken after, int pageSize);
+
+
     //
     // remove
     //
@@ -161,14 +312,20 @@ public interface ORMSupporter {
 
     boolean remove(Class<? extends BaseEntity> clazz, String condition);
 
+    boolean remove(Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs);
+
     boolean remove(String tableName, String condition);
 
+    boolean remove(String tableName, String condition, Object[] bindArgs);
+
     boolean removeAll(Class<? extends BaseEntity> clazz);
 
     boolean removeAll(String tableName);
 
     boolean removeByPrimaryKey(Class<? extends BaseEntity> clazz, Object primary);
 
+    boolean removeByPrimaryKeys(Class<? extends BaseEntity> clazz, Collection<?> primaryKeys);
+
 
     //
     // insertNew & replace & update
@@ -177,7 +334,27 @@ public interface ORMSupporter {
 
     boolean replace(BaseEntity entity);
 
+    boolean upsert(BaseEntity entity);
+
     boolean update(BaseEntity entity);
 
     boolean update(BaseEntity entity, String condition);
+
+    boolean update(BaseEntity entity, String condition, Object[] bindArgs);
+
+
+    //
+    // batch insertNew & replace & upsert
+    //
+    BatchResult insertAll(Collection<? extends BaseEntity> entities);
+
+    BatchResult insertAll(Collection<? extends BaseEntity> entities, int chunkSize);
+
+    BatchResult replaceAll(Collection<? extends BaseEntity> entities);
+
+    BatchResult replaceAll(Collection<? extends BaseEntity> entities, int chunkSize);
+
+    BatchResult upsertAll(Collection<? extends BaseEntity> entities);
+
+    BatchResult upsertAll(Collection<? extends BaseEntity> entities, int chunkSize);
 }
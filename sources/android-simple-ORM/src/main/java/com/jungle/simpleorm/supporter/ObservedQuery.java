@@ -0,0 +1,155 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+//
+// a query re-executed on the observer thread after its table was changed.
+// a burst of changes is coalesced into one re-query, run `delayMillis` after the last change,
+// but no later than twice `delayMillis` after the first one.
+//
+public class ObservedQuery<T extends BaseEntity> implements TableChangeListener {
+
+    private static final int MAX_WAIT_FACTOR = 2;
+
+
+    private final SQLiteORMSupporter mSupporter;
+    private final Query<T> mQuery;
+    private final QueryObserver<T> mObserver;
+    private final ScheduledExecutorService mExecutor;
+    private final long mDelayMillis;
+    private ScheduledFuture<?> mPending;
+    private boolean mInBurst = false;
+    private long mBurstStartNanos;
+    private volatile boolean mIsCancelled = false;
+
+    private final Runnable mRequery = new Runnable() {
+        @Override
+        public void run() {
+            // a change from now on starts the next burst.
+            synchronized (ObservedQuery.this) {
+                mInBurst = false;
+            }
+
+            if (mIsCancelled || mSupporter.isClosed()) {
+                return;
+            }
+
+            List<T> result = mSupporter.query(mQuery);
+            if (!mIsCancelled) {
+                mObserver.onQueryResult(result);
+            }
+        }
+    };
+
+
+    ObservedQuery(SQLiteORMSupporter supporter, Query<T> query, QueryObserver<T> observer,
+            ScheduledExecutorService executor, long delayMillis) {
+
+        mSupporter = supporter;
+        mQuery = query;
+        mObserver = observer;
+        mExecutor = executor;
+        mDelayMillis = Math.max(delayMillis, 0);
+    }
+
+    public Query<T> getQuery() {
+        return mQuery;
+    }
+
+    public String getTableName() {
+        return mQuery.getTableName();
+    }
+
+    public boolean isCancelled() {
+        return mIsCancelled;
+    }
+
+    public void cancel() {
+        mIsCancelled = true;
+        mSupporter.removeTableChangeListener(this);
+
+        synchronized (this) {
+            if (mPending != null) {
+                mPending.cancel(false);
+                mPending = null;
+            }
+        }
+    }
+
+    //
+    // re-executes the query now, e.g. after the observer missed a result.
+    //
+    public void requery() {
+        schedule(0);
+    }
+
+    @Override
+    public void onTablesChanged(Set<String> tableNames) {
+        if (!mIsCancelled && tableNames.contains(mQuery.getTableName())) {
+            schedule(mDelayMillis);
+        }
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (mIsCancelled) {
+            return;
+        }
+
+        //
+        // every change restarts the delay, up to the max wait since the first change,
+        // so a steady stream of writes can't hold the observer off forever.
+        // a re-query already running has read the table before this change,
+        // so the new one is scheduled anyway.
+        //
+        long now = System.nanoTime();
+        if (!mInBurst) {
+            mInBurst = true;
+            mBurstStartNanos = now;
+        }
+
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_FACTOR * mDelayMillis);
+        long delayNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(delayMillis),
+                mBurstStartNanos + maxWaitNanos - now);
+
+        if (mPending != null) {
+            mPending.cancel(false);
+        }
+
+        try {
+            mPending = mExecutor.schedule(
+                    mRequery, Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the supporter was closed.
+            mPending = null;
+            mInBurst = false;
+        }
+    }
+}
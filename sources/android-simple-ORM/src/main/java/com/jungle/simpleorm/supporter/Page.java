@@ -0,0 +1,52 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import com.jungle.simpleorm.BaseEntity;
+
+import java.util.List;
+
+public class Page<T extends BaseEntity> {
+
+    private List<T> mItems;
+    private PageToken mNextToken;
+
+
+    public Page(List<T> items, PageToken nextToken) {
+        mItems = items;
+        mNextToken = nextToken;
+    }
+
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    //
+    // null when this is the last page.
+    //
+    public PageToken getNextToken() {
+        return mNextToken;
+    }
+
+    public boolean hasMore() {
+        return mNextToken != null;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import java.util.Arrays;
+
+//
+// the ordered column values of the last row seen, queryPage() continues after it.
+// for the default primary key order, it is simply the last primary key.
+//
+public class PageToken {
+
+    private Object[] mValues;
+
+
+    public PageToken(Object... values) {
+        mValues = values != null ? values.clone() : new Object[0];
+    }
+
+    public int size() {
+        return mValues.length;
+    }
+
+    public Object getValue(int index) {
+        return mValues[index];
+    }
+
+    public Object[] getValues() {
+        return mValues.clone();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(mValues);
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+//
+// the results of repeated queries, keyed by (SQL, bind args, result type), dropped
+// when the queried table changes. disabled until setMaxSize() gives it a memory budget.
+//
+// entity lists are kept as row values, every hit returns a new list of new entities.
+//
+public class QueryCache {
+
+    public static final long DEFAULT_MAX_SIZE = 256 * 1024;
+
+    //
+    // the cached `null` result, e.g. the empty entity list.
+    //
+    static final Object NULL_RESULT = new Object();
+
+
+    private static class QueryKey {
+        final String mSql;
+        final Object[] mArgs;
+        final Class<?> mResultType;
+        final int mHash;
+
+        QueryKey(String sql, Object[] args, Class<?> resultType) {
+            mSql = sql;
+            mArgs = args;
+            mResultType = resultType;
+            mHash = 31 * (31 * sql.hashCode() + Arrays.deepHashCode(args)) + resultType.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof QueryKey)) {
+                return false;
+            }
+
+            QueryKey other = (QueryKey) o;
+            return mHash == other.mHash
+                    && mResultType == other.mResultType
+                    && mSql.equals(other.mSql)
+                    && Arrays.deepEquals(mArgs, other.mArgs);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+
+
+    private static class Result {
+        final String mTableName;
+        final Object mValue;
+        final int mSize;
+
+        Result(String tableName, Object value, int size) {
+            mTableName = tableName;
+            mValue = value;
+            mSize = size;
+        }
+    }
+
+
+    private long mMaxSize;
+    private long mSize;
+    private long mGeneration;
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+    private LinkedHashMap<QueryKey, Result> mResults = new LinkedHashMap<>(16, 0.75f, true);
+
+
+    QueryCache(long maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    public synchronized boolean isEnabled() {
+        return mMaxSize > 0;
+    }
+
+    synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    //
+    // null when missed, NULL_RESULT for a cached null.
+    //
+    synchronized Object get(String sql, Object[] args, Class<?> resultType) {
+        if (mMaxSize <= 0) {
+            return null;
+        }
+
+        Result result = mResults.get(new QueryKey(sql, args, resultType));
+        if (result == null) {
+            ++mMissCount;
+            return null;
+        }
+
+        ++mHitCount;
+        return result.mValue;
+    }
+
+    synchronized void put(String sql, Object[] args, Class<?> resultType,
+            String tableName, Object value, int size, long generation) {
+
+        if (generation != mGeneration || mMaxSize <= 0) {
+            return;
+        }
+
+        size += 64 + 2 * sql.length();
+        if (args != null) {
+            for (Object arg : args) {
+                size += EntityCache.estimateValueSize(arg);
+            }
+        }
+
+        if (size > mMaxSize) {
+            return;
+        }
+
+        Result old = mResults.put(new QueryKey(sql, copyArgs(args), resultType),
+                new Result(tableName, value != null ? value : NULL_RESULT, size));
+        if (old != null) {
+            mSize -= old.mSize;
+        }
+
+        mSize += size;
+        trimToSize(mMaxSize);
+    }
+
+    //
+    // the key must not change when the caller reuses its args array or blob.
+    //
+    private static Object[] copyArgs(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+
+        Object[] result = args.clone();
+        for (int i = 0; i < result.length; ++i) {
+            if (result[i] instanceof byte[]) {
+                result[i] = ((byte[]) result[i]).clone();
+            }
+        }
+
+        return result;
+    }
+
+    synchronized void invalidate(String tableName) {
+        ++mGeneration;
+
+        Iterator<Map.Entry<QueryKey, Result>> iterator = mResults.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<QueryKey, Result> entry = iterator.next();
+            if (entry.getValue().mTableName.equals(tableName)) {
+                mSize -= entry.getValue().mSize;
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized Set<String> getTableNames() {
+        Set<String> result = new HashSet<>();
+        for (Result value : mResults.values()) {
+            result.add(value.mTableName);
+        }
+
+        return result;
+    }
+
+    public synchronized void clear() {
+        ++mGeneration;
+        mResults.clear();
+        mSize = 0;
+    }
+
+    public synchronized void setMaxSize(long maxSize) {
+        mMaxSize = maxSize;
+        trimToSize(Math.max(maxSize, 0));
+    }
+
+    public synchronized long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    public synchronized int getCount() {
+        return mResults.size();
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    private void trimToSize(long maxSize) {
+        Iterator<Map.Entry<QueryKey, Result>> iterator = mResults.entrySet().iterator();
+        while (mSize > maxSize && iterator.hasNext()) {
+            Map.Entry<QueryKey, Result> eldest = iterator.next();
+            mSize -= eldest.getValue().mSize;
+            iterator.remove();
+            ++mEvictionCount;
+        }
+    }
+}
@@ -0,0 +1,466 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import android.database.Cursor;
+import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.mapper.EntityMapper;
+import com.jungle.simpleorm.mapper.EntityMappers;
+import com.jungle.simpleorm.utils.EntityUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//
+// the field -> column mapping of one entity (or plain DTO) class against one cursor
+// column set, resolved once and reused for every row of the cursor.
+//
+class RowBindingPlan {
+
+    static final int DEFAULT_MAX_PLANS = 64;
+
+    private static final int TYPE_INT = 0;
+    private static final int TYPE_LONG = 1;
+    private static final int TYPE_STRING = 2;
+    private static final int TYPE_BLOB = 3;
+    private static final int TYPE_SHORT = 4;
+    private static final int TYPE_FLOAT = 5;
+    private static final int TYPE_DOUBLE = 6;
+    private static final int TYPE_BYTE = 7;
+    private static final int TYPE_BOOLEAN = 8;
+    private static final int TYPE_BOXED_BLOB = 9;
+
+
+    private static class PlanKey {
+        private final Class<?> mClazz;
+        private final String[] mColumnNames;
+        private final int mHash;
+
+        PlanKey(Class<?> clazz, String[] columnNames) {
+            mClazz = clazz;
+            mColumnNames = columnNames;
+            mHash = 31 * clazz.hashCode() + Arrays.hashCode(columnNames);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+
+            PlanKey other = (PlanKey) o;
+            return mHash == other.mHash
+                    && mClazz == other.mClazz
+                    && Arrays.equals(mColumnNames, other.mColumnNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+
+
+    //
+    // the column values of one row, read before any load hook ran.
+    // the caches keep them and load every hit into a new entity.
+    //
+    static class RowValues {
+        private final RowBindingPlan mPlan;
+        private final Object[] mValues;
+
+        private RowValues(RowBindingPlan plan, Object[] values) {
+            mPlan = plan;
+            mValues = values;
+        }
+
+        boolean isOf(Class<?> clazz) {
+            return mPlan.mClazz == clazz;
+        }
+
+        int estimateSize() {
+            int size = 16;
+            for (Object value : mValues) {
+                size += EntityCache.estimateValueSize(value);
+            }
+
+            return size;
+        }
+
+        <T extends BaseEntity> T newEntity() {
+            return mPlan.newEntity(mValues);
+        }
+    }
+
+
+    private static final Map<PlanKey, RowBindingPlan> mPlans =
+            new LinkedHashMap<PlanKey, RowBindingPlan>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PlanKey, RowBindingPlan> eldest) {
+                    return size() > DEFAULT_MAX_PLANS;
+                }
+            };
+
+
+    private final Class<?> mClazz;
+    private final EntityMapper<BaseEntity> mMapper;
+
+    // generated mapper: cursor column of every mapper column, -1 when absent.
+    private int[] mMapperColumns;
+
+    // generated mapper: the field of every mapper column, to load the row values.
+    private Field[] mMapperFields;
+
+    // reflection: only the fields present in the cursor.
+    private Field[] mFields;
+    private int[] mFieldColumns;
+    private int[] mFieldTypes;
+
+    // some column of the entity is missing from the cursor, e.g. a projection.
+    private boolean mPartial;
+
+
+    static RowBindingPlan obtain(Class<?> clazz, Cursor cursor) {
+        PlanKey key = new PlanKey(clazz, cursor.getColumnNames());
+
+        RowBindingPlan plan;
+        synchronized (mPlans) {
+            plan = mPlans.get(key);
+        }
+
+        if (plan == null) {
+            plan = new RowBindingPlan(clazz, cursor);
+            synchronized (mPlans) {
+                mPlans.put(key, plan);
+            }
+        }
+
+        return plan;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RowBindingPlan(Class<?> clazz, Cursor cursor) {
+        mClazz = clazz;
+
+        List<Field> fields;
+        if (BaseEntity.class.isAssignableFrom(clazz)) {
+            Class<? extends BaseEntity> entityClazz = (Class<? extends BaseEntity>) clazz;
+            mMapper = EntityMappers.getMapper(entityClazz);
+            fields = mMapper == null ? EntityUtils.getEntityFields(entityClazz) : null;
+        } else {
+            mMapper = null;
+            fields = getObjectFields(clazz);
+        }
+
+        if (mMapper != null) {
+            String[] columnNames = mMapper.getColumnNames();
+            List<Field> columnFields = EntityUtils.getColumnFields(
+                    (Class<? extends BaseEntity>) clazz);
+
+            mMapperColumns = new int[columnNames.length];
+            mMapperFields = new Field[columnNames.length];
+            for (int i = 0; i < columnNames.length; ++i) {
+                mMapperColumns[i] = cursor.getColumnIndex(columnNames[i]);
+                mPartial |= mMapperColumns[i] == -1;
+
+                for (Field f : columnFields) {
+                    if (f.getName().equals(columnNames[i])) {
+                        if (!f.isAccessible()) {
+                            f.setAccessible(true);
+                        }
+
+                        mMapperFields[i] = f;
+                        break;
+                    }
+                }
+            }
+
+            return;
+        }
+
+        if (BaseEntity.class.isAssignableFrom(clazz)) {
+            for (Field f : EntityUtils.getColumnFields((Class<? extends BaseEntity>) clazz)) {
+                mPartial |= cursor.getColumnIndex(f.getName()) == -1;
+            }
+        }
+
+        Field[] planFields = new Field[fields.size()];
+        int[] planColumns = new int[fields.size()];
+        int[] planTypes = new int[fields.size()];
+
+        int count = 0;
+        for (Field f : fields) {
+            int column = cursor.getColumnIndex(f.getName());
+            int type = getFieldType(f.getType());
+            if (column == -1 || type == -1) {
+                // the entity doesn't have this column, or the cursor doesn't.
+                continue;
+            }
+
+            if (!f.isAccessible()) {
+                f.setAccessible(true);
+            }
+
+            planFields[count] = f;
+            planColumns[count] = column;
+            planTypes[count] = type;
+            ++count;
+        }
+
+        mFields = Arrays.copyOf(planFields, count);
+        mFieldColumns = Arrays.copyOf(planColumns, count);
+        mFieldTypes = Arrays.copyOf(planTypes, count);
+    }
+
+    //
+    // a DTO maps its public, non-static, non-final fields by name.
+    //
+    private static List<Field> getObjectFields(Class<?> clazz) {
+        List<Field> result = new ArrayList<Field>();
+        for (Field f : clazz.getFields()) {
+            int modifiers = f.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+                result.add(f);
+            }
+        }
+
+        return result;
+    }
+
+    private static int getFieldType(Class<?> type) {
+        if (type == Integer.class || type == int.class) {
+            return TYPE_INT;
+        } else if (type == Long.class || type == long.class) {
+            return TYPE_LONG;
+        } else if (type == String.class) {
+            return TYPE_STRING;
+        } else if (type == byte[].class) {
+            return TYPE_BLOB;
+        } else if (type == Byte[].class) {
+            return TYPE_BOXED_BLOB;
+        } else if (type == Short.class || type == short.class) {
+            return TYPE_SHORT;
+        } else if (type == Float.class || type == float.class) {
+            return TYPE_FLOAT;
+        } else if (type == Double.class || type == double.class) {
+            return TYPE_DOUBLE;
+        } else if (type == Byte.class || type == byte.class) {
+            return TYPE_BYTE;
+        } else if (type == Boolean.class || type == boolean.class) {
+            return TYPE_BOOLEAN;
+        }
+
+        return -1;
+    }
+
+    //
+    // hydrate the entity at the current cursor row.
+    //
+    @SuppressWarnings("unchecked")
+    <T extends BaseEntity> T readEntity(Cursor cursor) {
+        BaseEntity entity = newEntity();
+        if (entity == null) {
+            return null;
+        }
+
+        entity.onPreLoad();
+
+        if (mMapper != null) {
+            mMapper.readCursor(entity, cursor, mMapperColumns);
+        } else {
+            try {
+                readFields(entity, cursor);
+            } catch (IllegalAccessException e) {
+                e.printStackTrace();
+            }
+        }
+
+        setLoaded(entity);
+        entity.onDataLoaded();
+
+        return (T) entity.toRealEntity();
+    }
+
+    static <T extends BaseEntity> List<T> newEntities(RowValues[] rows) {
+        List<T> result = new ArrayList<T>(rows.length);
+        for (RowValues row : rows) {
+            T entity = row.newEntity();
+            result.add(entity);
+        }
+
+        return result;
+    }
+
+    //
+    // the column values at the current cursor row, no load hook runs on them.
+    //
+    RowValues readValues(Cursor cursor) {
+        Object[] values;
+        if (mMapper != null) {
+            BaseEntity entity = mMapper.newEntity();
+            mMapper.readCursor(entity, cursor, mMapperColumns);
+
+            values = new Object[mMapperColumns.length];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = mMapper.getValue(entity, i);
+            }
+        } else {
+            values = new Object[mFields.length];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = readValue(cursor, i);
+            }
+        }
+
+        return new RowValues(this, values);
+    }
+
+    //
+    // load row values into a new entity, the same way readEntity() loads a cursor row.
+    //
+    @SuppressWarnings("unchecked")
+    private <T extends BaseEntity> T newEntity(Object[] values) {
+        BaseEntity entity = newEntity();
+        if (entity == null) {
+            return null;
+        }
+
+        entity.onPreLoad();
+
+        Field[] fields = mMapper != null ? mMapperFields : mFields;
+        try {
+            for (int i = 0; i < values.length; ++i) {
+                if (fields[i] != null) {
+                    // blobs are mutable, the values may be loaded again.
+                    fields[i].set(entity, copyValue(values[i]));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+            return null;
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        setLoaded(entity);
+        entity.onDataLoaded();
+
+        return (T) entity.toRealEntity();
+    }
+
+    private void setLoaded(BaseEntity entity) {
+        if (mPartial) {
+            // the missing columns hold defaults, writing them back would lose the row's values.
+            entity.setPartial();
+        } else {
+            entity.setStored();
+        }
+    }
+
+    //
+    // fill a plain object (DTO) from the current cursor row.
+    //
+    @SuppressWarnings("unchecked")
+    <D> D readObject(Cursor cursor) {
+        try {
+            Object result = mClazz.newInstance();
+            readFields(result, cursor);
+            return (D) result;
+        } catch (InstantiationException e) {
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private BaseEntity newEntity() {
+        if (mMapper != null) {
+            return mMapper.newEntity();
+        }
+
+        try {
+            return (BaseEntity) mClazz.newInstance();
+        } catch (InstantiationException e) {
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private void readFields(Object entity, Cursor cursor) throws IllegalAccessException {
+        final int count = mFields.length;
+        for (int i = 0; i < count; ++i) {
+            mFields[i].set(entity, readValue(cursor, i));
+        }
+    }
+
+    private Object readValue(Cursor cursor, int index) {
+        int column = mFieldColumns[index];
+
+        switch (mFieldTypes[index]) {
+            case TYPE_INT:
+                return cursor.getInt(column);
+            case TYPE_LONG:
+                return cursor.getLong(column);
+            case TYPE_STRING:
+                return cursor.getString(column);
+            case TYPE_BLOB:
+                return cursor.getBlob(column);
+            case TYPE_SHORT:
+                return (short) cursor.getInt(column);
+            case TYPE_FLOAT:
+                return cursor.getFloat(column);
+            case TYPE_DOUBLE:
+                return cursor.getDouble(column);
+            case TYPE_BYTE:
+                return (byte) cursor.getInt(column);
+            case TYPE_BOOLEAN:
+                return cursor.getInt(column) != 0;
+            case TYPE_BOXED_BLOB:
+                return EntityMappers.toBoxedBytes(cursor.getBlob(column));
+            default:
+                return null;
+        }
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        } else if (value instanceof Byte[]) {
+            return ((Byte[]) value).clone();
+        }
+
+        return value;
+    }
+}
@@ -27,26 +27,102 @@ import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteStatement;
 import android.text.TextUtils;
 import com.jungle.simpleorm.BaseEntity;
 import com.jungle.simpleorm.constraint.AutoIncrement;
 import com.jungle.simpleorm.constraint.NotColumnField;
 import com.jungle.simpleorm.constraint.PrimaryKey;
+import com.jungle.simpleorm.mapper.EntityMapper;
+import com.jungle.simpleorm.mapper.EntityMappers;
+import com.jungle.simpleorm.query.Query;
 import com.jungle.simpleorm.utils.DBUtils;
+import com.jungle.simpleorm.utils.EntityMetadata;
 import com.jungle.simpleorm.utils.EntityUtils;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SQLiteORMSupporter implements ORMSupporter {
 
-    private boolean mIsClosed = false;
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+
+    private static final long FAILED_ROW_ID = Long.MIN_VALUE;
+
+
+    private static enum StoreMode {
+        Insert,
+        Replace,
+        Upsert,
+    }
+
+    //
+    // the nesting and outcome of the transaction on one thread,
+    // with the tables changed in it, published when the outermost level commits.
+    //
+    private static class TransactionState {
+        List<Boolean> mLevels = new ArrayList<>();
+        boolean mFailed = false;
+        Set<String> mChangedTables = new HashSet<>();
+
+        boolean isActive() {
+            return !mLevels.isEmpty();
+        }
+    }
+
+
+    public static final long DEFAULT_OBSERVE_DELAY_MILLIS = 50;
+    public static final int DEFAULT_READER_COUNT = 3;
+
+    //
+    // the fingerprint of the CREATE statement each table or index was created from.
+    //
+    private static final String SCHEMA_TABLE = "orm_schema";
+
+    private volatile boolean mIsClosed = false;
     private SQLiteOpenHelper mDBHelper;
+    private volatile CountDownLatch mOpenLatch;
+    private volatile Thread mOpenThread;
     private SQLiteDatabase mDatabase;
-    private Set<String> mTableCache = new HashSet<>();
+    private volatile SQLiteDatabase[] mReaders = new SQLiteDatabase[0];
+    private AtomicInteger mNextReader = new AtomicInteger();
+    private Set<String> mTableCache =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Set<String> mIndexCache =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Set<String> mVerifiedTables =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Map<String, String> mSchemaFingerprints = new ConcurrentHashMap<>();
+    private StatementCache mStatementCache = new StatementCache();
+    private EntityCache mEntityCache = new EntityCache(EntityCache.DEFAULT_MAX_SIZE);
+    private QueryCache mQueryCache = new QueryCache(0);
+    private List<TableChangeListener> mTableChangeListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService mObserverExecutor;
+    private ThreadLocal<TransactionState> mTransactionState = new ThreadLocal<TransactionState>() {
+        @Override
+        protected TransactionState initialValue() {
+            return new TransactionState();
+        }
+    };
+    private boolean mUpsertSupported = false;
 
 
     public SQLiteORMSupporter() {
@@ -59,39 +135,244 @@ public class SQLiteORMSupporter implements ORMSupporter {
         initORM(context, dbFilePath, dbVersion, listener);
     }
 
+    public SQLiteORMSupporter(
+            Context context, String dbFilePath,
+            int dbVersion, ORMDatabaseListener listener, int readerCount) {
+
+        initORM(context, dbFilePath, dbVersion, listener, readerCount);
+    }
+
     public void initORM(
             Context context, String dbFilePath,
             int dbVersion, ORMDatabaseListener listener) {
 
-        mDBHelper = new ORMDatabaseOpenHelper(
-                context, dbFilePath, dbVersion, this, listener);
+        initORM(context, dbFilePath, dbVersion, listener, 0);
+    }
+
+    //
+    // readerCount > 0 turns on write-ahead logging and opens that many read-only connections:
+    // reads run on them round-robin and are never blocked by a writer,
+    // writes and the reads inside a transaction stay on the primary connection.
+    //
+    public void initORM(
+            Context context, String dbFilePath,
+            int dbVersion, ORMDatabaseListener listener, int readerCount) {
+
+        ORMDatabaseOpenHelper helper = new ORMDatabaseOpenHelper(
+                context, dbFilePath, dbVersion, this, listener, readerCount > 0);
 
-        attachDatabase(mDBHelper.getWritableDatabase());
+        mDBHelper = helper;
+        attachDatabase(helper.getWritableDatabase());
+        openReaders(helper, readerCount);
         listener.onLoadComplete(this);
     }
 
+    //
+    // opens, creates or upgrades the database on a background thread and returns at once.
+    // the entity classes given are warmed up there too, see `warmUp`.
+    // every other call waits until the open finished, `onLoadComplete` is called after it.
+    // if the open fails, the supporter is closed and `onLoadComplete` isn't called.
+    //
+    public void initORMAsync(
+            final Context context, final String dbFilePath, final int dbVersion,
+            final ORMDatabaseListener listener, final int readerCount,
+            final Class<?>... warmUpClasses) {
+
+        mOpenLatch = new CountDownLatch(1);
+        mOpenThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                openAsync(context, dbFilePath, dbVersion, listener, readerCount, warmUpClasses);
+            }
+        }, "ORM-Open");
+
+        mOpenThread.start();
+    }
+
+    private void openAsync(Context context, String dbFilePath, int dbVersion,
+            ORMDatabaseListener listener, int readerCount, Class<?>[] warmUpClasses) {
+
+        boolean loaded = false;
+        try {
+            ORMDatabaseOpenHelper helper = new ORMDatabaseOpenHelper(
+                    context, dbFilePath, dbVersion, this, listener, readerCount > 0);
+
+            mDBHelper = helper;
+            attachDatabase(helper.getWritableDatabase());
+            openReaders(helper, readerCount);
+            warmUp(warmUpClasses);
+            loaded = !mIsClosed;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            mIsClosed = true;
+        } finally {
+            mOpenThread = null;
+            mOpenLatch.countDown();
+        }
+
+        if (loaded) {
+            listener.onLoadComplete(this);
+        }
+    }
+
+    //
+    // whether an `initORMAsync` open is still running, never waits.
+    //
+    public boolean isOpening() {
+        CountDownLatch latch = mOpenLatch;
+        return latch != null && latch.getCount() > 0;
+    }
+
+    private void awaitOpen() {
+        CountDownLatch latch = mOpenLatch;
+
+        // the open thread itself runs onCreated/onUpgrade through this supporter.
+        if (latch == null || latch.getCount() == 0 || Thread.currentThread() == mOpenThread) {
+            return;
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //
+    // waits for an async open, then tells whether the database can't be used.
+    //
+    private boolean checkClosed() {
+        awaitOpen();
+        return mIsClosed;
+    }
+
+    //
+    // computes the metadata of the entity classes and compiles their insert/replace
+    // and by-key statements into the statement cache, so the first real calls don't pay it.
+    // classes which aren't entities or whose table doesn't exist yet are skipped.
+    //
+    public void warmUp(Class<?>... entityClasses) {
+        if (checkClosed() || entityClasses == null) {
+            return;
+        }
+
+        for (Class<?> clazz : entityClasses) {
+            if (clazz == null || !BaseEntity.class.isAssignableFrom(clazz)) {
+                continue;
+            }
+
+            Class<? extends BaseEntity> entityClazz = clazz.asSubclass(BaseEntity.class);
+            EntityMetadata metadata = EntityMetadata.of(entityClazz);
+            EntityMappers.getMapper(entityClazz);
+
+            String tableName = metadata.getTableName();
+            if (!mTableCache.contains(tableName) && !DBUtils.isTableExist(mDatabase, tableName)) {
+                continue;
+            }
+
+            List<StatementCache.Kind> kinds = new ArrayList<>();
+            kinds.add(StatementCache.Kind.Insert);
+            kinds.add(StatementCache.Kind.Replace);
+            if (!metadata.getPrimaryKeyFields().isEmpty()) {
+                kinds.add(StatementCache.Kind.UpdateByKey);
+                kinds.add(StatementCache.Kind.DeleteByKey);
+                mStatementCache.getSql(tableName, entityClazz, StatementCache.Kind.QueryByKey);
+            }
+
+            for (StatementCache.Kind kind : kinds) {
+                mStatementCache.release(acquireStatement(tableName, entityClazz, kind));
+            }
+        }
+    }
+
+    private void openReaders(ORMDatabaseOpenHelper helper, int readerCount) {
+        // without WAL a reader would block the writer, and be blocked by it.
+        if (checkClosed() || readerCount <= 0 || !helper.isWriteAheadLoggingEnabled()) {
+            return;
+        }
+
+        List<SQLiteDatabase> readers = new ArrayList<>(readerCount);
+        try {
+            for (int i = 0; i < readerCount; ++i) {
+                readers.add(SQLiteDatabase.openDatabase(
+                        mDatabase.getPath(), null, SQLiteDatabase.OPEN_READONLY));
+            }
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+
+        mReaders = readers.toArray(new SQLiteDatabase[readers.size()]);
+    }
+
+    private void closeReaders() {
+        SQLiteDatabase[] readers = mReaders;
+        mReaders = new SQLiteDatabase[0];
+
+        for (SQLiteDatabase reader : readers) {
+            reader.close();
+        }
+    }
+
+    public int getReaderCount() {
+        return mReaders.length;
+    }
+
+    //
+    // a transaction must read its own uncommitted writes, only the primary connection sees them.
+    //
+    private SQLiteDatabase getReadDatabase() {
+        SQLiteDatabase[] readers = mReaders;
+        if (readers.length == 0 || mDatabase.inTransaction()) {
+            return mDatabase;
+        }
+
+        int index = (mNextReader.getAndIncrement() & Integer.MAX_VALUE) % readers.length;
+        return readers[index];
+    }
+
     @Override
     public void attachDatabase(SQLiteDatabase db) {
         if (mDatabase == db) {
             return;
         }
 
+        mStatementCache.clear();
+        mEntityCache.clear();
+        mQueryCache.clear();
+        closeReaders();
         mDatabase = db;
         mIsClosed = mDatabase == null;
         openForeignKeySupport();
+        loadSchema();
+
+        mUpsertSupported = !mIsClosed
+                && DBUtils.getSQLiteVersion(mDatabase) >= DBUtils.SQLITE_VERSION_UPSERT;
     }
 
     @Override
     public boolean isClosed() {
-        return mIsClosed;
+        return checkClosed();
     }
 
     @Override
     public void close() {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return;
         }
 
+        mStatementCache.clear();
+        mEntityCache.clear();
+        mQueryCache.clear();
+        shutdownObserverExecutor();
+        closeReaders();
         mDatabase.close();
         mDBHelper.close();
 
@@ -101,8 +382,165 @@ public class SQLiteORMSupporter implements ORMSupporter {
         mIsClosed = true;
     }
 
-    private boolean openForeignKeySupport() {
+    public StatementCache getStatementCache() {
+        return mStatementCache;
+    }
+
+    public EntityCache getEntityCache() {
+        return mEntityCache;
+    }
+
+    //
+    // disabled by default, enable it by `getQueryCache().setMaxSize(QueryCache.DEFAULT_MAX_SIZE)`.
+    //
+    public QueryCache getQueryCache() {
+        return mQueryCache;
+    }
+
+    public void addTableChangeListener(TableChangeListener listener) {
+        if (listener != null && !mTableChangeListeners.contains(listener)) {
+            mTableChangeListeners.add(listener);
+        }
+    }
+
+    public void removeTableChangeListener(TableChangeListener listener) {
+        mTableChangeListeners.remove(listener);
+    }
+
+    public <T extends BaseEntity> ObservedQuery<T> observe(
+            Query<T> query, QueryObserver<T> observer) {
+
+        return observe(query, observer, DEFAULT_OBSERVE_DELAY_MILLIS);
+    }
+
+    //
+    // runs `query` on the observer thread now and again after each change of its table,
+    // a burst of changes is coalesced into one re-query `delayMillis` after the last change,
+    // at most twice `delayMillis` after the first one.
+    // call `cancel()` to stop observing.
+    //
+    public <T extends BaseEntity> ObservedQuery<T> observe(
+            Query<T> query, QueryObserver<T> observer, long delayMillis) {
+
+        if (checkClosed() || query == null || observer == null) {
+            return null;
+        }
+
+        ObservedQuery<T> observed = new ObservedQuery<>(
+                this, query, observer, getObserverExecutor(), delayMillis);
+        addTableChangeListener(observed);
+        observed.requery();
+        return observed;
+    }
+
+    private synchronized ScheduledExecutorService getObserverExecutor() {
+        if (mObserverExecutor == null) {
+            mObserverExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ORM-QueryObserver");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return mObserverExecutor;
+    }
+
+    private synchronized void shutdownObserverExecutor() {
+        for (TableChangeListener listener : mTableChangeListeners) {
+            if (listener instanceof ObservedQuery) {
+                ((ObservedQuery<?>) listener).cancel();
+            }
+        }
+
+        if (mObserverExecutor != null) {
+            mObserverExecutor.shutdownNow();
+            mObserverExecutor = null;
+        }
+    }
+
+    //
+    // the existing tables, indexes and their fingerprints are read once,
+    // then createTable doesn't query anything for a table whose schema is known.
+    //
+    private void loadSchema() {
+        mTableCache.clear();
+        mIndexCache.clear();
+        mVerifiedTables.clear();
+        mSchemaFingerprints.clear();
         if (mIsClosed) {
+            return;
+        }
+
+        try {
+            mTableCache.addAll(DBUtils.getTableNames(mDatabase));
+            mIndexCache.addAll(DBUtils.getIndexNames(mDatabase));
+            if (!mTableCache.contains(SCHEMA_TABLE)) {
+                return;
+            }
+
+            Cursor cursor = mDatabase.rawQuery(
+                    "SELECT name, fingerprint FROM " + SCHEMA_TABLE + ";", null);
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    mSchemaFingerprints.put(cursor.getString(0), cursor.getString(1));
+                }
+
+                cursor.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void storeFingerprint(String tableName, String fingerprint) {
+        try {
+            if (!mTableCache.contains(SCHEMA_TABLE)) {
+                mDatabase.execSQL("CREATE TABLE IF NOT EXISTS " + SCHEMA_TABLE
+                        + " (name TEXT PRIMARY KEY NOT NULL, fingerprint TEXT NOT NULL);");
+                mTableCache.add(SCHEMA_TABLE);
+            }
+
+            mDatabase.execSQL("INSERT OR REPLACE INTO " + SCHEMA_TABLE + " VALUES (?, ?);",
+                    new Object[] {tableName, fingerprint});
+            mSchemaFingerprints.put(tableName, fingerprint);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void removeFingerprint(String tableName) {
+        if (mSchemaFingerprints.remove(tableName) == null) {
+            return;
+        }
+
+        try {
+            mDatabase.execSQL("DELETE FROM " + SCHEMA_TABLE + " WHERE name = ?;",
+                    new Object[] {tableName});
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //
+    // whether the entity's CREATE statement differs from the one its table was created from,
+    // i.e. the table needs a migration in onUpgrade.
+    //
+    public boolean isSchemaChanged(Class<? extends BaseEntity> clazz) {
+        BaseEntity entity = newEntity(clazz);
+        if (entity == null || checkClosed()) {
+            return false;
+        }
+
+        String fingerprint = mSchemaFingerprints.get(entity.getTableName());
+        return fingerprint != null && !fingerprint.equals(
+                DBUtils.getFingerprint(EntityUtils.generateCreateStatement(entity)));
+    }
+
+    private boolean openForeignKeySupport() {
+        if (checkClosed()) {
             return false;
         }
 
@@ -111,34 +549,105 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
     @Override
     public boolean beginTransaction() {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return false;
         }
 
-        mDatabase.beginTransaction();
+        beginDatabaseTransaction();
         return true;
     }
 
     @Override
     public boolean endTransaction() {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return false;
         }
 
-        mDatabase.endTransaction();
+        endDatabaseTransaction();
         return true;
     }
 
     @Override
     public boolean setTransactionSuccessful() {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return false;
         }
 
-        mDatabase.setTransactionSuccessful();
+        setDatabaseTransactionSuccessful();
         return true;
     }
 
+    //
+    // all transactions go through here, so the changes can be published when they commit.
+    //
+    private void beginDatabaseTransaction() {
+        mDatabase.beginTransaction();
+        mTransactionState.get().mLevels.add(false);
+    }
+
+    private void setDatabaseTransactionSuccessful() {
+        mDatabase.setTransactionSuccessful();
+
+        List<Boolean> levels = mTransactionState.get().mLevels;
+        if (!levels.isEmpty()) {
+            levels.set(levels.size() - 1, true);
+        }
+    }
+
+    private void endDatabaseTransaction() {
+        boolean ended = false;
+        try {
+            mDatabase.endTransaction();
+            ended = true;
+        } finally {
+            TransactionState state = mTransactionState.get();
+            if (state.isActive()) {
+                boolean successful = state.mLevels.remove(state.mLevels.size() - 1);
+                state.mFailed |= !successful || !ended;
+
+                if (!state.isActive()) {
+                    Set<String> changedTables = state.mChangedTables;
+                    boolean committed = !state.mFailed;
+                    mTransactionState.remove();
+
+                    if (committed && !changedTables.isEmpty()) {
+                        onTransactionCommitted(changedTables);
+                    }
+                }
+            }
+        }
+    }
+
+    private void onTransactionCommitted(Set<String> tableNames) {
+        // other connections may have cached the old rows between the write and the commit.
+        for (String tableName : tableNames) {
+            mEntityCache.invalidate(tableName);
+            mQueryCache.invalidate(tableName);
+        }
+
+        publishTableChanges(tableNames);
+    }
+
+    private void notifyTableChanged(String tableName) {
+        TransactionState state = mTransactionState.get();
+        if (state.isActive()) {
+            state.mChangedTables.add(tableName);
+        } else {
+            publishTableChanges(Collections.singleton(tableName));
+        }
+    }
+
+    private void publishTableChanges(Set<String> tableNames) {
+        Set<String> changedTables = Collections.unmodifiableSet(tableNames);
+        for (TableChangeListener listener : mTableChangeListeners) {
+            try {
+                listener.onTablesChanged(changedTables);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     @Override
     public boolean drop(Class<? extends BaseEntity> clazz) {
         String tableName = EntityUtils.getTableName(clazz);
@@ -147,13 +656,19 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
     @Override
     public boolean drop(String tableName) {
-        if (mIsClosed || TextUtils.isEmpty(tableName)) {
+        if (checkClosed() || TextUtils.isEmpty(tableName)) {
             return false;
         }
 
         try {
             String sql = "DROP TABLE IF EXISTS " + tableName;
             mDatabase.execSQL(sql);
+
+            removeFingerprint(tableName);
+            // its indexes were dropped with it.
+            loadSchema();
+            mStatementCache.invalidate(tableName);
+            onTableChanged(tableName);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -164,28 +679,51 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
     @Override
     public boolean execSQL(String sql) {
-        if (mIsClosed || TextUtils.isEmpty(sql)) {
+        return execSQL(sql, null);
+    }
+
+    @Override
+    public boolean execSQL(String sql, Object[] args) {
+        if (!executeSQL(sql, args)) {
             return false;
         }
 
-        try {
-            mDatabase.execSQL(sql);
-            return true;
-        } catch (SQLException e) {
-            e.printStackTrace();
+        // can't tell which rows the raw SQL changed, drop every cached table it names.
+        Set<String> identifiers = DBUtils.getIdentifiers(sql);
+        if (identifiers.contains("table") || identifiers.contains("index")) {
+            // CREATE/DROP/ALTER TABLE or INDEX, the known schema may have changed.
+            loadSchema();
         }
 
-        return false;
+        Set<String> tableNames = mEntityCache.getTableNames();
+        tableNames.addAll(mQueryCache.getTableNames());
+        for (TableChangeListener listener : mTableChangeListeners) {
+            if (listener instanceof ObservedQuery) {
+                tableNames.add(((ObservedQuery<?>) listener).getTableName());
+            }
+        }
+
+        for (String tableName : tableNames) {
+            if (identifiers.contains(tableName.toLowerCase(Locale.US))) {
+                onTableChanged(tableName);
+            }
+        }
+
+        return true;
     }
 
-    @Override
-    public boolean execSQL(String sql, Object[] args) {
-        if (mIsClosed || TextUtils.isEmpty(sql)) {
+    private boolean executeSQL(String sql, Object[] args) {
+        if (checkClosed() || TextUtils.isEmpty(sql)) {
             return false;
         }
 
         try {
-            mDatabase.execSQL(sql, args);
+            if (args == null || args.length == 0) {
+                mDatabase.execSQL(sql);
+            } else {
+                mDatabase.execSQL(sql, args);
+            }
+
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -196,76 +734,382 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
     @Override
     public Cursor rawQuery(String sql) {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return null;
         }
 
-        return mDatabase.rawQuery(sql, null);
+        return getReadDatabase().rawQuery(sql, null);
     }
 
     @Override
     public double querySum(Class<? extends BaseEntity> clazz,
             String fieldName, String condition) {
 
-        if (mIsClosed) {
-            return 0;
-        }
+        return querySum(clazz, fieldName, condition, null);
+    }
 
-        String tableName = EntityUtils.getTableName(clazz);
-        String sql = "SELECT SUM(" + fieldName + ") FROM " + tableName;
-        if (!TextUtils.isEmpty(condition)) {
-            sql += " WHERE " + condition;
-        }
+    @Override
+    public double querySum(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
 
-        sql += ";";
-        Cursor cursor = mDatabase.rawQuery(sql, null);
-        if (cursor == null) {
-            return 0;
-        }
+        return queryAggregate(clazz, "SUM", fieldName, condition, bindArgs);
+    }
 
-        double sum = 0;
-        if (cursor.moveToFirst()) {
-            sum = cursor.getDouble(0);
-        }
+    @Override
+    public double queryMin(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
 
-        cursor.close();
-        return sum;
+        return queryAggregate(clazz, "MIN", fieldName, condition, bindArgs);
     }
 
     @Override
-    public <T> List<T> queryPrimaryKeyList(
-            Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz) {
+    public double queryMax(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
 
-        return queryPrimaryKeyList(clazz, primaryKeyClazz, null, null);
+        return queryAggregate(clazz, "MAX", fieldName, condition, bindArgs);
     }
 
     @Override
-    public <T> List<T> queryPrimaryKeyList(
-            Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz,
-            String condition, String constraint) {
+    public double queryAvg(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
 
-        String tableName = EntityUtils.getTableName(clazz);
-        return queryPrimaryKeyList(primaryKeyClazz, tableName, clazz, condition, constraint);
+        return queryAggregate(clazz, "AVG", fieldName, condition, bindArgs);
     }
 
     @Override
-    public <T> List<T> queryPrimaryKeyList(BaseEntity entity, Class<T> primaryKeyClazz) {
-        return queryPrimaryKeyList(primaryKeyClazz, entity.getTableName(), entity.getClass());
+    public double queryTotal(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+
+        return queryAggregate(clazz, "TOTAL", fieldName, condition, bindArgs);
     }
 
-    private <T> List<T> queryPrimaryKeyList(
-            Class<T> primaryKeyClazz, String tableName, Class<? extends BaseEntity> clazz) {
+    @Override
+    public long queryMinLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
 
-        return queryPrimaryKeyList(primaryKeyClazz, tableName, clazz, null, null);
+        return queryAggregateLong(clazz, "MIN", fieldName, condition, bindArgs);
     }
 
-    private <T> List<T> queryPrimaryKeyList(
-            Class<T> primaryKeyClazz, String tableName, Class<? extends BaseEntity> clazz,
-            String condition, String constraint) {
+    @Override
+    public long queryMaxLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
 
-        if (mIsClosed) {
-            return null;
-        }
+        return queryAggregateLong(clazz, "MAX", fieldName, condition, bindArgs);
+    }
+
+    @Override
+    public long querySumLong(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+
+        return queryAggregateLong(clazz, "SUM", fieldName, condition, bindArgs);
+    }
+
+    @Override
+    public GroupedResult queryGroupedSum(Class<? extends BaseEntity> clazz,
+            String groupField, String sumField, String condition, Object[] bindArgs) {
+
+        return queryGrouped(clazz, groupField, "TOTAL(" + sumField + ")", condition, bindArgs);
+    }
+
+    @Override
+    public GroupedResult queryGroupedCount(Class<? extends BaseEntity> clazz,
+            String groupField, String condition, Object[] bindArgs) {
+
+        return queryGrouped(clazz, groupField, "COUNT(*)", condition, bindArgs);
+    }
+
+    private static String generateAggregateStatement(String tableName,
+            String select, String condition, String groupField) {
+
+        StringBuilder builder = new StringBuilder("SELECT ");
+        if (groupField != null) {
+            builder.append(groupField).append(", ");
+        }
+
+        builder.append(select).append(" FROM ").append(tableName);
+        if (!TextUtils.isEmpty(condition)) {
+            builder.append(" WHERE ").append(condition);
+        }
+
+        if (groupField != null) {
+            builder.append(" GROUP BY ").append(groupField)
+                    .append(" ORDER BY ").append(groupField);
+        }
+
+        builder.append(";");
+        return builder.toString();
+    }
+
+    private double queryAggregate(Class<? extends BaseEntity> clazz,
+            String function, String fieldName, String condition, Object[] bindArgs) {
+
+        if (checkClosed()) {
+            return 0;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (TextUtils.isEmpty(tableName)) {
+            return 0;
+        }
+
+        String sql = generateAggregateStatement(
+                tableName, function + "(" + fieldName + ")", condition, null);
+        Object cached = mQueryCache.get(sql, bindArgs, Double.class);
+        if (cached != null) {
+            return (Double) cached;
+        }
+
+        long generation = mQueryCache.getGeneration();
+        Cursor cursor = rawQueryWithArgs(sql, bindArgs);
+        if (cursor == null) {
+            return 0;
+        }
+
+        double value = 0;
+        if (cursor.moveToFirst() && !cursor.isNull(0)) {
+            value = cursor.getDouble(0);
+        }
+
+        cursor.close();
+        putQueryResult(sql, bindArgs, Double.class, tableName, value, 16, generation);
+        return value;
+    }
+
+    //
+    // a one-shot compiled statement read by `simpleQueryForLong`, no cursor window is allocated.
+    // SQLite keeps the prepared statement per connection, keyed by the SQL text.
+    //
+    private long queryAggregateLong(Class<? extends BaseEntity> clazz,
+            String function, String fieldName, String condition, Object[] bindArgs) {
+
+        if (checkClosed()) {
+            return 0;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (TextUtils.isEmpty(tableName)) {
+            return 0;
+        }
+
+        String sql = generateAggregateStatement(
+                tableName, function + "(" + fieldName + ")", condition, null);
+        Object cached = mQueryCache.get(sql, bindArgs, Long.class);
+        if (cached != null) {
+            return (Long) cached;
+        }
+
+        long generation = mQueryCache.getGeneration();
+        long value = 0;
+        SQLiteStatement statement = null;
+        try {
+            statement = getReadDatabase().compileStatement(sql);
+            if (bindArgs != null) {
+                for (int i = 0; i < bindArgs.length; ++i) {
+                    bindValue(statement, i + 1, bindArgs[i]);
+                }
+            }
+
+            // NULL, i.e. no row matched, is read as 0.
+            value = statement.simpleQueryForLong();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        } finally {
+            if (statement != null) {
+                statement.close();
+            }
+        }
+
+        putQueryResult(sql, bindArgs, Long.class, tableName, value, 16, generation);
+        return value;
+    }
+
+    private GroupedResult queryGrouped(Class<? extends BaseEntity> clazz,
+            String groupField, String select, String condition, Object[] bindArgs) {
+
+        if (checkClosed() || TextUtils.isEmpty(groupField)) {
+            return null;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (TextUtils.isEmpty(tableName)) {
+            return null;
+        }
+
+        String sql = generateAggregateStatement(tableName, select, condition, groupField);
+        Object cached = mQueryCache.get(sql, bindArgs, GroupedResult.class);
+        if (cached != null) {
+            return (GroupedResult) cached;
+        }
+
+        long generation = mQueryCache.getGeneration();
+        Cursor cursor = rawQueryWithArgs(sql, bindArgs);
+        if (cursor == null) {
+            return null;
+        }
+
+        int count = cursor.getCount();
+        Object[] keys = new Object[count];
+        double[] values = new double[count];
+        int size = 32;
+        for (int i = 0; i < count && cursor.moveToNext(); ++i) {
+            switch (cursor.getType(0)) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                    keys[i] = cursor.getLong(0);
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    keys[i] = cursor.getDouble(0);
+                    break;
+                case Cursor.FIELD_TYPE_STRING:
+                    keys[i] = cursor.getString(0);
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    keys[i] = cursor.getBlob(0);
+                    break;
+                default:
+                    keys[i] = null;
+                    break;
+            }
+
+            values[i] = cursor.getDouble(1);
+            size += 24 + EntityCache.estimateValueSize(keys[i]);
+        }
+
+        cursor.close();
+
+        GroupedResult result = new GroupedResult(keys, values);
+        putQueryResult(sql, bindArgs, GroupedResult.class, tableName, result, size, generation);
+        return result;
+    }
+
+    @Override
+    public <T> List<T> queryPrimaryKeyList(
+            Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz) {
+
+        return queryPrimaryKeyList(clazz, primaryKeyClazz, null, null);
+    }
+
+    @Override
+    public <T> List<T> queryPrimaryKeyList(
+            Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz,
+            String condition, String constraint) {
+
+        return queryPrimaryKeyList(clazz, primaryKeyClazz, condition, null, constraint);
+    }
+
+    @Override
+    public <T> List<T> queryPrimaryKeyList(
+            Class<? extends BaseEntity> clazz, Class<T> primaryKeyClazz,
+            String condition, Object[] bindArgs, String constraint) {
+
+        String tableName = EntityUtils.getTableName(clazz);
+        return queryPrimaryKeyList(
+                primaryKeyClazz, tableName, clazz, condition, bindArgs, constraint);
+    }
+
+    @Override
+    public <T> List<T> queryPrimaryKeyList(BaseEntity entity, Class<T> primaryKeyClazz) {
+        return queryPrimaryKeyList(primaryKeyClazz, entity.getTableName(), entity.getClass());
+    }
+
+    @Override
+    public long[] queryPrimaryKeysAsLongs(
+            Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs) {
+
+        Field primaryKey = EntityUtils.getPrimaryKeyField(clazz);
+        if (primaryKey == null) {
+            return null;
+        }
+
+        return queryColumnAsLongs(clazz, primaryKey.getName(), condition, bindArgs);
+    }
+
+    @Override
+    public long[] queryColumnAsLongs(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+
+        Cursor cursor = queryColumn(clazz, fieldName, condition, bindArgs);
+        if (cursor == null) {
+            return null;
+        }
+
+        long[] result = new long[cursor.getCount()];
+        for (int i = 0; i < result.length && cursor.moveToNext(); ++i) {
+            result[i] = cursor.getLong(0);
+        }
+
+        cursor.close();
+        return result;
+    }
+
+    @Override
+    public int[] queryColumnAsInts(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+
+        Cursor cursor = queryColumn(clazz, fieldName, condition, bindArgs);
+        if (cursor == null) {
+            return null;
+        }
+
+        int[] result = new int[cursor.getCount()];
+        for (int i = 0; i < result.length && cursor.moveToNext(); ++i) {
+            result[i] = cursor.getInt(0);
+        }
+
+        cursor.close();
+        return result;
+    }
+
+    @Override
+    public double[] queryColumnAsDoubles(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+
+        Cursor cursor = queryColumn(clazz, fieldName, condition, bindArgs);
+        if (cursor == null) {
+            return null;
+        }
+
+        double[] result = new double[cursor.getCount()];
+        for (int i = 0; i < result.length && cursor.moveToNext(); ++i) {
+            result[i] = cursor.getDouble(0);
+        }
+
+        cursor.close();
+        return result;
+    }
+
+    //
+    // the row count sizes the array once, the column is then read row by row.
+    //
+    private Cursor queryColumn(Class<? extends BaseEntity> clazz,
+            String fieldName, String condition, Object[] bindArgs) {
+
+        if (TextUtils.isEmpty(fieldName)) {
+            return null;
+        }
+
+        try {
+            return queryColumns(clazz, new String[] {fieldName}, condition, bindArgs);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private <T> List<T> queryPrimaryKeyList(
+            Class<T> primaryKeyClazz, String tableName, Class<? extends BaseEntity> clazz) {
+
+        return queryPrimaryKeyList(primaryKeyClazz, tableName, clazz, null, null, null);
+    }
+
+    private <T> List<T> queryPrimaryKeyList(
+            Class<T> primaryKeyClazz, String tableName, Class<? extends BaseEntity> clazz,
+            String condition, Object[] bindArgs, String constraint) {
+
+        if (checkClosed()) {
+            return null;
+        }
 
         if (TextUtils.isEmpty(tableName)) {
             return null;
@@ -291,7 +1135,7 @@ public class SQLiteORMSupporter implements ORMSupporter {
         }
 
         sql += ";";
-        Cursor cursor = mDatabase.rawQuery(sql, null);
+        Cursor cursor = rawQueryWithArgs(sql, bindArgs);
         if (cursor == null) {
             return null;
         }
@@ -318,8 +1162,13 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
     @Override
     public int queryCount(Class<? extends BaseEntity> clazz, String condition) {
+        return queryCount(clazz, condition, null);
+    }
+
+    @Override
+    public int queryCount(Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs) {
         String tableName = EntityUtils.getTableName(clazz);
-        return queryCount(tableName, condition);
+        return queryCount(tableName, condition, bindArgs);
     }
 
     @Override
@@ -329,7 +1178,12 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
     @Override
     public int queryCount(String tableName, String condition) {
-        if (mIsClosed) {
+        return queryCount(tableName, condition, null);
+    }
+
+    @Override
+    public int queryCount(String tableName, String condition, Object[] bindArgs) {
+        if (checkClosed()) {
             return 0;
         }
 
@@ -344,20 +1198,32 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
         sql += ";";
 
+        Object cached = mQueryCache.get(sql, bindArgs, Integer.class);
+        if (cached != null) {
+            return (Integer) cached;
+        }
+
         int count = 0;
-        Cursor cursor = mDatabase.rawQuery(sql, null);
+        long generation = mQueryCache.getGeneration();
+        Cursor cursor = rawQueryWithArgs(sql, bindArgs);
         if (cursor.moveToNext()) {
             count = cursor.getInt(0);
         }
 
         cursor.close();
+        putQueryResult(sql, bindArgs, Integer.class, tableName, count, 16, generation);
         return count;
     }
 
     @Override
     public boolean updateFields(String tableName, String updateSql) {
         String sql = String.format("UPDATE %s SET %s;", tableName, updateSql);
-        return execSQL(sql);
+        if (!executeSQL(sql, null)) {
+            return false;
+        }
+
+        onTableChanged(tableName);
+        return true;
     }
 
     @Override
@@ -415,7 +1281,7 @@ public class SQLiteORMSupporter implements ORMSupporter {
     @Override
     public <T extends BaseEntity> T queryByPosition(
             Class<? extends BaseEntity> clazz, String tableName, int position) {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return null;
         }
 
@@ -423,9 +1289,8 @@ public class SQLiteORMSupporter implements ORMSupporter {
             return null;
         }
 
-        String sql = String.format("SELECT * FROM %s LIMIT %d, %d;",
-                tableName, position, position + 1);
-        Cursor cursor = mDatabase.rawQuery(sql, null);
+        String sql = String.format("SELECT * FROM %s LIMIT %d, 1;", tableName, position);
+        Cursor cursor = getReadDatabase().rawQuery(sql, null);
 
         T result = null;
         if (cursor.moveToNext()) {
@@ -439,7 +1304,7 @@ public class SQLiteORMSupporter implements ORMSupporter {
     @Override
     public <T extends BaseEntity> List<T> query(
             Class<? extends BaseEntity> clazz, String tableName) {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return null;
         }
 
@@ -448,7 +1313,7 @@ public class SQLiteORMSupporter implements ORMSupporter {
         }
 
         String sql = "SELECT * FROM " + tableName + ";";
-        Cursor cursor = mDatabase.rawQuery(sql, null);
+        Cursor cursor = getReadDatabase().rawQuery(sql, null);
         if (cursor != null) {
             List<T> result = cursorToEntityList(clazz, tableName, cursor);
             cursor.close();
@@ -461,7 +1326,7 @@ public class SQLiteORMSupporter implements ORMSupporter {
     @Override
     public <T extends BaseEntity> T queryByPrimary(
             Class<? extends BaseEntity> clazz, String tableName, Object primary) {
-        if (mIsClosed) {
+        if (checkClosed()) {
             return null;
         }
 
@@ -469,21 +1334,51 @@ public class SQLiteORMSupporter implements ORMSupporter {
             return null;
         }
 
-        Field primaryKey = EntityUtils.getPrimaryKeyField(clazz);
-        if (primaryKey == null) {
+        String sql = mStatementCache.getSql(tableName, clazz, StatementCache.Kind.QueryByKey);
+        if (sql == null) {
             return null;
         }
 
-        String sql = "SELECT * FROM "
-                + tableName
-                + " WHERE " + primaryKey.getName()
-                + "='" + String.valueOf(primary) + "';";
+        final String primaryArg = String.valueOf(primary);
+        final boolean cacheable = isEntityCacheable(clazz);
+        long generation = 0;
+
+        if (cacheable) {
+            RowBindingPlan.RowValues values = mEntityCache.get(tableName, primaryArg, clazz);
+            if (values != null) {
+                T entity = values.newEntity();
+                if (entity != null) {
+                    return entity;
+                }
+            }
+
+            generation = mEntityCache.getGeneration();
+        }
 
-        Cursor cursor = mDatabase.rawQuery(sql, null);
+        Cursor cursor = rawQueryWithArgs(sql, new Object[]{primary});
         if (cursor != null) {
             if (cursor.moveToFirst()) {
-                T entity = cursorToEntity(clazz, tableName, cursor);
+                //
+                // never cache the uncommitted rows of our own transaction.
+                //
+                if (!cacheable || mDatabase.inTransaction()) {
+                    T entity = cursorToEntity(clazz, tableName, cursor);
+                    cursor.close();
+                    return entity;
+                }
+
+                //
+                // cache the values as read, the load hooks run again on every hit.
+                //
+                RowBindingPlan.RowValues values =
+                        RowBindingPlan.obtain(clazz, cursor).readValues(cursor);
                 cursor.close();
+
+                T entity = values.newEntity();
+                if (entity != null) {
+                    mEntityCache.put(tableName, primaryArg, values, generation);
+                }
+
                 return entity;
             } else {
                 cursor.close();
@@ -494,60 +1389,304 @@ public class SQLiteORMSupporter implements ORMSupporter {
         return null;
     }
 
-    @Override
-    public <T extends BaseEntity> List<T> queryByCondition(
-            Class<? extends BaseEntity> clazz, String condition, String constraint) {
-
-        String tableName = EntityUtils.getTableName(clazz);
-        return queryByConditionWithTableName(clazz, tableName, condition, constraint);
+    private static boolean isEntityCacheable(Class<? extends BaseEntity> clazz) {
+        return EntityUtils.isCacheable(clazz) && EntityUtils.getPrimaryKeyFields(clazz).size() == 1;
     }
 
     @Override
-    public <T extends BaseEntity> List<T> queryByConditionWithTableName(
-            Class<? extends BaseEntity> clazz, String tableName,
-            String condition, String constraint) {
+    public <K, T extends BaseEntity> Map<K, T> queryByPrimaryKeys(
+            Class<? extends BaseEntity> clazz, Collection<K> primaryKeys) {
 
-        if (mIsClosed) {
+        if (checkClosed() || primaryKeys == null) {
             return null;
         }
 
-        if (TextUtils.isEmpty(tableName)) {
+        String tableName = EntityUtils.getTableName(clazz);
+        Field primaryKey = EntityUtils.getPrimaryKeyField(clazz);
+        if (primaryKey == null) {
             return null;
         }
 
-        StringBuilder builder = new StringBuilder();
-        builder.append("SELECT * FROM ").append(tableName);
-
-        if (!TextUtils.isEmpty(condition)) {
-            builder.append(" WHERE ").append(condition);
+        //
+        // the keys are bound with their types, the rows are mapped back by the key's text.
+        //
+        Map<String, K> keyLookup = new LinkedHashMap<>();
+        for (K key : primaryKeys) {
+            if (key != null) {
+                keyLookup.put(String.valueOf(key), key);
+            }
         }
 
-        if (!TextUtils.isEmpty(constraint)) {
-            builder.append(" ").append(constraint);
-        }
+        //
+        // a plain read, no transaction: it would block the writers and bypass the readers.
+        //
+        Map<K, T> result = new LinkedHashMap<>();
+        Iterator<K> keyIterator = keyLookup.values().iterator();
+        int remaining = keyLookup.size();
 
-        builder.append(";");
+        try {
+            while (remaining > 0) {
+                Object[] args = new Object[Math.min(remaining, DBUtils.MAX_HOST_PARAMETERS)];
+                for (int i = 0; i < args.length; ++i) {
+                    args[i] = keyIterator.next();
+                }
 
-        Cursor cursor = mDatabase.rawQuery(builder.toString(), null);
-        if (cursor != null) {
-            List<T> result = cursorToEntityList(clazz, tableName, cursor);
-            cursor.close();
-            return result;
-        }
+                remaining -= args.length;
 
-        return null;
-    }
+                //
+                // only the full chunk shape is worth caching, the tail differs between calls.
+                //
+                String sql = args.length == DBUtils.MAX_HOST_PARAMETERS
+                        ? mStatementCache.getSql(tableName, clazz,
+                                StatementCache.Kind.QueryByKeys, args.length)
+                        : EntityUtils.generateQueryByKeysStatement(clazz, tableName, args.length);
 
-    @Override
-    public <T extends BaseEntity> List<T> query(
-            Class<? extends BaseEntity> clazz, String tableName, int count) {
-        return query(clazz, tableName, 0, count);
-    }
+                Cursor cursor = rawQueryWithArgs(sql, args);
+                if (cursor == null) {
+                    continue;
+                }
 
-    @Override
-    public <T extends BaseEntity> List<T> query(
-            Class<? extends BaseEntity> clazz, String tableName, int index, int count) {
-        if (mIsClosed) {
+                List<T> entities = cursorToEntityList(clazz, tableName, cursor);
+                cursor.close();
+
+                if (entities != null) {
+                    for (T entity : entities) {
+                        Object value = primaryKey.get(entity);
+                        K key = keyLookup.get(String.valueOf(value));
+                        if (key != null) {
+                            result.put(key, entity);
+                        }
+                    }
+                }
+            }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return result;
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> query(
+            Class<? extends BaseEntity> clazz, String[] columns,
+            String condition, Object[] bindArgs) {
+
+        Cursor cursor = queryColumns(clazz, columns, condition, bindArgs);
+        if (cursor == null) {
+            return null;
+        }
+
+        //
+        // the plan binds only the fields found in the cursor.
+        //
+        List<T> result = cursorToEntityList(clazz, null, cursor);
+        cursor.close();
+        return result;
+    }
+
+    @Override
+    public <D> List<D> queryProjection(
+            Class<? extends BaseEntity> clazz, Class<D> dtoClazz,
+            String[] columns, String condition, Object[] bindArgs) {
+
+        if (dtoClazz == null) {
+            return null;
+        }
+
+        Cursor cursor = queryColumns(clazz, columns, condition, bindArgs);
+        if (cursor == null) {
+            return null;
+        }
+
+        List<D> result = new ArrayList<D>(cursor.getCount());
+        if (cursor.moveToFirst()) {
+            RowBindingPlan plan = RowBindingPlan.obtain(dtoClazz, cursor);
+            do {
+                D dto = plan.readObject(cursor);
+                result.add(dto);
+            } while (cursor.moveToNext());
+        }
+
+        cursor.close();
+        return result;
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> query(Query<T> query) {
+        if (checkClosed() || query == null) {
+            return null;
+        }
+
+        return queryEntityList(query.getEntityClass(), query.getTableName(),
+                query.getSql(), query.getArgs());
+    }
+
+    //
+    // entity list queries going through the query cache. the cache keeps the row values,
+    // every caller gets its own list of new entities.
+    //
+    private <T extends BaseEntity> List<T> queryEntityList(
+            Class<? extends BaseEntity> clazz, String tableName, String sql, Object[] args) {
+
+        Object cached = mQueryCache.get(sql, args, clazz);
+        if (cached != null) {
+            return cached != QueryCache.NULL_RESULT
+                    ? RowBindingPlan.<T>newEntities((RowBindingPlan.RowValues[]) cached) : null;
+        }
+
+        long generation = mQueryCache.getGeneration();
+        Cursor cursor = rawQueryWithArgs(sql, args);
+        if (cursor == null) {
+            return null;
+        }
+
+        if (!mQueryCache.isEnabled()) {
+            List<T> result = cursorToEntityList(clazz, tableName, cursor);
+            cursor.close();
+            return result;
+        }
+
+        RowBindingPlan.RowValues[] rows = null;
+        int size = 0;
+        if (cursor.moveToFirst()) {
+            RowBindingPlan plan = RowBindingPlan.obtain(clazz, cursor);
+            rows = new RowBindingPlan.RowValues[cursor.getCount()];
+            size = 32 + 8 * rows.length;
+
+            int count = 0;
+            do {
+                rows[count] = plan.readValues(cursor);
+                size += rows[count].estimateSize();
+                ++count;
+            } while (count < rows.length && cursor.moveToNext());
+        }
+
+        cursor.close();
+        putQueryResult(sql, args, clazz, tableName, rows, size, generation);
+        return rows != null ? RowBindingPlan.<T>newEntities(rows) : null;
+    }
+
+    private void putQueryResult(String sql, Object[] args, Class<?> resultType,
+            String tableName, Object value, int size, long generation) {
+
+        // a result read inside a transaction may be rolled back.
+        if (!mQueryCache.isEnabled() || mDatabase.inTransaction()) {
+            return;
+        }
+
+        mQueryCache.put(sql, args, resultType, tableName, value, size, generation);
+    }
+
+    private Cursor queryColumns(Class<? extends BaseEntity> clazz,
+            String[] columns, String condition, Object[] bindArgs) {
+
+        if (checkClosed()) {
+            return null;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (TextUtils.isEmpty(tableName)) {
+            return null;
+        }
+
+        StringBuilder builder = new StringBuilder("SELECT ");
+        if (columns == null || columns.length == 0) {
+            builder.append("*");
+        } else {
+            builder.append(TextUtils.join(", ", columns));
+        }
+
+        builder.append(" FROM ").append(tableName);
+        if (!TextUtils.isEmpty(condition)) {
+            builder.append(" WHERE ").append(condition);
+        }
+
+        builder.append(";");
+        return rawQueryWithArgs(builder.toString(), bindArgs);
+    }
+
+    //
+    // the args are bound like the statements bind them, a NULL arg never compares equal,
+    // use `IS NULL` in the condition instead.
+    //
+    private Cursor rawQueryWithArgs(String sql, Object[] bindArgs) {
+        SQLiteDatabase db = getReadDatabase();
+        if (bindArgs == null || bindArgs.length == 0) {
+            return db.rawQuery(sql, null);
+        }
+
+        return db.rawQueryWithFactory(new BindArgsCursorFactory(bindArgs), sql, null, null);
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> queryByCondition(
+            Class<? extends BaseEntity> clazz, String condition, String constraint) {
+
+        return queryByCondition(clazz, condition, null, constraint);
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> queryByCondition(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, String constraint) {
+
+        String tableName = EntityUtils.getTableName(clazz);
+        return queryByConditionWithTableName(clazz, tableName, condition, bindArgs, constraint);
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> queryByConditionWithTableName(
+            Class<? extends BaseEntity> clazz, String tableName,
+            String condition, String constraint) {
+
+        return queryByConditionWithTableName(clazz, tableName, condition, null, constraint);
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> queryByConditionWithTableName(
+            Class<? extends BaseEntity> clazz, String tableName,
+            String condition, Object[] bindArgs, String constraint) {
+
+        if (checkClosed()) {
+            return null;
+        }
+
+        if (TextUtils.isEmpty(tableName)) {
+            return null;
+        }
+
+        String sql = generateSelectStatement(tableName, condition, constraint);
+        return queryEntityList(clazz, tableName, sql, bindArgs);
+    }
+
+    private static String generateSelectStatement(
+            String tableName, String condition, String constraint) {
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("SELECT * FROM ").append(tableName);
+
+        if (!TextUtils.isEmpty(condition)) {
+            builder.append(" WHERE ").append(condition);
+        }
+
+        if (!TextUtils.isEmpty(constraint)) {
+            builder.append(" ").append(constraint);
+        }
+
+        builder.append(";");
+        return builder.toString();
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> query(
+            Class<? extends BaseEntity> clazz, String tableName, int count) {
+        return query(clazz, tableName, 0, count);
+    }
+
+    @Override
+    public <T extends BaseEntity> List<T> query(
+            Class<? extends BaseEntity> clazz, String tableName, int index, int count) {
+        if (checkClosed()) {
             return null;
         }
 
@@ -557,7 +1696,7 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
         String sql = "SELECT * FROM "
                 + tableName + " LIMIT " + index + "," + count + ";";
-        Cursor cursor = mDatabase.rawQuery(sql, null);
+        Cursor cursor = getReadDatabase().rawQuery(sql, null);
         if (cursor == null) {
             return null;
         }
@@ -567,9 +1706,274 @@ public class SQLiteORMSupporter implements ORMSupporter {
         return result;
     }
 
+    @Override
+    public <T extends BaseEntity> EntityIterator<T> iterate(Class<? extends BaseEntity> clazz) {
+        return iterate(clazz, null, null, null);
+    }
+
+    @Override
+    public <T extends BaseEntity> EntityIterator<T> iterate(
+            Class<? extends BaseEntity> clazz, String condition, String constraint) {
+
+        return iterate(clazz, condition, null, constraint);
+    }
+
+    @Override
+    public <T extends BaseEntity> EntityIterator<T> iterate(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, String constraint) {
+
+        if (checkClosed()) {
+            return null;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (TextUtils.isEmpty(tableName)) {
+            return null;
+        }
+
+        //
+        // the cursor stays open, the rows are loaded by the iterator one at a time.
+        //
+        String sql = generateSelectStatement(tableName, condition, constraint);
+        Cursor cursor = rawQueryWithArgs(sql, bindArgs);
+        return new EntityIterator<T>(clazz, cursor);
+    }
+
+    @Override
+    public <T extends BaseEntity> boolean forEach(
+            Class<? extends BaseEntity> clazz, String condition, Visitor<T> visitor) {
+
+        return forEach(clazz, condition, null, visitor);
+    }
+
+    @Override
+    public <T extends BaseEntity> boolean forEach(
+            Class<? extends BaseEntity> clazz, String condition,
+            Object[] bindArgs, Visitor<T> visitor) {
+
+        if (visitor == null) {
+            return false;
+        }
+
+        EntityIterator<T> iterator = iterate(clazz, condition, bindArgs, null);
+        if (iterator == null) {
+            return false;
+        }
+
+        try {
+            while (iterator.hasNext()) {
+                if (!visitor.visit(iterator.next())) {
+                    break;
+                }
+            }
+        } finally {
+            iterator.close();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean scanColumns(ColumnBatch batch,
+            String condition, Object[] bindArgs, ColumnBatch.Visitor visitor) {
+
+        if (batch == null || visitor == null) {
+            return false;
+        }
+
+        Cursor cursor = null;
+        try {
+            cursor = queryColumns(batch.getEntityClass(), batch.getColumns(), condition, bindArgs);
+            if (cursor == null) {
+                return false;
+            }
+
+            while (batch.fill(cursor)) {
+                if (!visitor.visit(batch)) {
+                    break;
+                }
+            }
+
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, PageToken after, int pageSize) {
+        return queryPage(clazz, null, null, null, after, pageSize);
+    }
+
+    @Override
+    public <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, String[] orderColumns,
+            String condition, PageToken after, int pageSize) {
+
+        return queryPage(clazz, orderColumns, condition, null, after, pageSize);
+    }
+
+    @Override
+    public <T extends BaseEntity> Page<T> queryPage(
+            Class<? extends BaseEntity> clazz, String[] orderColumns,
+            String condition, Object[] bindArgs, PageToken after, int pageSize) {
+
+        if (checkClosed() || pageSize <= 0) {
+            return null;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (TextUtils.isEmpty(tableName)) {
+            return null;
+        }
+
+        List<Field> orderFields = getOrderFields(clazz, orderColumns);
+        if (orderFields == null || orderFields.isEmpty()) {
+            return null;
+        }
+
+        //
+        // the condition args come first, then the keyset args.
+        //
+        Object[] args = bindArgs;
+        if (after != null) {
+            Object[] keysetArgs = getKeysetArgs(after, orderFields.size());
+            if (keysetArgs == null) {
+                return null;
+            }
+
+            if (args == null) {
+                args = keysetArgs;
+            } else {
+                Object[] merged = new Object[args.length + keysetArgs.length];
+                System.arraycopy(args, 0, merged, 0, args.length);
+                System.arraycopy(keysetArgs, 0, merged, args.length, keysetArgs.length);
+                args = merged;
+            }
+        }
+
+        //
+        // fetch one more row to know whether there is a next page.
+        //
+        String sql = EntityUtils.generateKeysetQueryStatement(
+                tableName, orderFields, condition, after != null, pageSize + 1);
+        Cursor cursor = rawQueryWithArgs(sql, args);
+        if (cursor == null) {
+            return null;
+        }
+
+        List<T> items = new ArrayList<T>();
+        PageToken nextToken = null;
+
+        try {
+            if (cursor.moveToFirst()) {
+                RowBindingPlan plan = RowBindingPlan.obtain(clazz, cursor);
+                do {
+                    T entity = plan.readEntity(cursor);
+                    items.add(entity);
+                } while (items.size() < pageSize && cursor.moveToNext());
+
+                if (cursor.getCount() > pageSize) {
+                    nextToken = createPageToken(orderFields, items.get(items.size() - 1));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            cursor.close();
+        }
+
+        return new Page<T>(items, nextToken);
+    }
+
+    private static List<Field> getOrderFields(
+            Class<? extends BaseEntity> clazz, String[] orderColumns) {
+
+        List<Field> columnFields = EntityUtils.getColumnFields(clazz);
+        List<Field> result = new ArrayList<Field>();
+
+        if (orderColumns != null) {
+            for (String column : orderColumns) {
+                Field field = null;
+                for (Field f : columnFields) {
+                    if (f.getName().equals(column)) {
+                        field = f;
+                        break;
+                    }
+                }
+
+                if (field == null) {
+                    // not a column of the entity.
+                    return null;
+                }
+
+                if (!result.contains(field)) {
+                    result.add(field);
+                }
+            }
+        }
+
+        //
+        // the primary key makes the order unique, so no row is skipped or repeated.
+        //
+        for (Field key : EntityUtils.getPrimaryKeyFields(clazz)) {
+            if (!result.contains(key)) {
+                result.add(key);
+            }
+        }
+
+        return result;
+    }
+
+    private static Object[] getKeysetArgs(PageToken token, int columnCount) {
+        if (token.size() != columnCount) {
+            return null;
+        }
+
+        //
+        // (a > ?) OR (a = ? AND b > ?) ..., the i-th term binds the first i + 1 values.
+        // the values keep their types, a float column never equals its value as a string.
+        //
+        Object[] args = new Object[columnCount * (columnCount + 1) / 2];
+        int index = 0;
+        for (int i = 0; i < columnCount; ++i) {
+            for (int j = 0; j <= i; ++j) {
+                Object value = token.getValue(j);
+                if (value == null) {
+                    // NULL never compares, keyset columns must be NOT NULL.
+                    return null;
+                }
+
+                args[index++] = value;
+            }
+        }
+
+        return args;
+    }
+
+    private static PageToken createPageToken(List<Field> orderFields, BaseEntity entity)
+            throws IllegalAccessException {
+
+        Object[] values = new Object[orderFields.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = getFieldValue(orderFields.get(i), entity);
+        }
+
+        return new PageToken(values);
+    }
+
     @Override
     public boolean remove(BaseEntity entity) {
-        if (mIsClosed || entity == null) {
+        if (checkClosed() || entity == null) {
             return false;
         }
 
@@ -598,13 +2002,23 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
     @Override
     public boolean remove(Class<? extends BaseEntity> clazz, String condition) {
+        return remove(clazz, condition, null);
+    }
+
+    @Override
+    public boolean remove(Class<? extends BaseEntity> clazz, String condition, Object[] bindArgs) {
         String tableName = EntityUtils.getTableName(clazz);
-        return remove(tableName, condition);
+        return remove(tableName, condition, bindArgs);
     }
 
     @Override
     public boolean remove(String tableName, String condition) {
-        if (mIsClosed) {
+        return remove(tableName, condition, null);
+    }
+
+    @Override
+    public boolean remove(String tableName, String condition, Object[] bindArgs) {
+        if (checkClosed()) {
             return false;
         }
 
@@ -619,7 +2033,13 @@ public class SQLiteORMSupporter implements ORMSupporter {
             }
 
             sql += ";";
-            mDatabase.execSQL(sql);
+            if (bindArgs == null || bindArgs.length == 0) {
+                mDatabase.execSQL(sql);
+            } else {
+                mDatabase.execSQL(sql, bindArgs);
+            }
+
+            onTableChanged(tableName);
             return true;
         } catch (SQLiteException e) {
             e.printStackTrace();
@@ -643,52 +2063,361 @@ public class SQLiteORMSupporter implements ORMSupporter {
     public boolean removeByPrimaryKey(
             Class<? extends BaseEntity> clazz, Object primary) {
 
-        if (mIsClosed) {
-            return false;
+        if (checkClosed()) {
+            return false;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (TextUtils.isEmpty(tableName)) {
+            return false;
+        }
+
+        StatementCache.CachedStatement cached = acquireStatement(
+                tableName, clazz, StatementCache.Kind.DeleteByKey);
+        if (cached == null) {
+            return false;
+        }
+
+        int effectRows = 0;
+        try {
+            SQLiteStatement statement = cached.getStatement();
+            bindValue(statement, 1, primary);
+            effectRows = statement.executeUpdateDelete();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            mStatementCache.release(cached);
+        }
+
+        if (effectRows > 0) {
+            onRowChanged(tableName, primary);
+        }
+
+        return effectRows > 0;
+    }
+
+    @Override
+    public boolean removeByPrimaryKeys(
+            Class<? extends BaseEntity> clazz, Collection<?> primaryKeys) {
+
+        if (checkClosed() || primaryKeys == null) {
+            return false;
+        }
+
+        String tableName = EntityUtils.getTableName(clazz);
+        if (EntityUtils.getPrimaryKeyField(clazz) == null) {
+            return false;
+        }
+
+        List<Object> keys = new ArrayList<>(primaryKeys.size());
+        for (Object key : primaryKeys) {
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+
+        int effectRows = 0;
+        beginDatabaseTransaction();
+
+        try {
+            final int keyCount = keys.size();
+            for (int start = 0; start < keyCount; start += DBUtils.MAX_HOST_PARAMETERS) {
+                final int count = Math.min(keyCount - start, DBUtils.MAX_HOST_PARAMETERS);
+                effectRows += removeByPrimaryKeys(
+                        tableName, clazz, keys.subList(start, start + count));
+            }
+
+            setDatabaseTransactionSuccessful();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            effectRows = 0;
+        } finally {
+            endDatabaseTransaction();
+        }
+
+        if (effectRows > 0) {
+            for (Object key : keys) {
+                onRowChanged(tableName, key);
+            }
+        }
+
+        return effectRows > 0;
+    }
+
+    private int removeByPrimaryKeys(
+            String tableName, Class<? extends BaseEntity> clazz, List<Object> keys) {
+
+        final int count = keys.size();
+        boolean isFullChunk = count == DBUtils.MAX_HOST_PARAMETERS;
+
+        //
+        // only the full chunk shape is worth caching, the tail differs between calls.
+        //
+        StatementCache.CachedStatement cached = null;
+        SQLiteStatement statement;
+        if (isFullChunk) {
+            cached = mStatementCache.acquire(
+                    mDatabase, tableName, clazz, StatementCache.Kind.DeleteByKeys, count);
+            statement = cached.getStatement();
+        } else {
+            statement = mDatabase.compileStatement(
+                    EntityUtils.generateDeleteByKeysStatement(clazz, tableName, count));
+        }
+
+        try {
+            for (int i = 0; i < count; ++i) {
+                bindValue(statement, i + 1, keys.get(i));
+            }
+
+            return statement.executeUpdateDelete();
+        } finally {
+            if (isFullChunk) {
+                mStatementCache.release(cached);
+            } else {
+                statement.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean insertNew(BaseEntity entity) {
+        return doStore(entity, StoreMode.Insert);
+    }
+
+    @Override
+    public boolean replace(BaseEntity entity) {
+        return doStore(entity, StoreMode.Replace);
+    }
+
+    @Override
+    public boolean upsert(BaseEntity entity) {
+        return doStore(entity, StoreMode.Upsert);
+    }
+
+    private boolean doStore(BaseEntity entity, StoreMode mode) {
+        if (checkClosed() || entity == null || !canStore(entity, mode)) {
+            return false;
+        }
+
+        String tableName = entity.getTableName();
+        if (!createTable(tableName, entity)) {
+            return false;
+        }
+
+        entity.onPreCommit();
+
+        //
+        // the update-then-insert fallback of upsert must be atomic.
+        //
+        final boolean inTransaction = mode == StoreMode.Upsert && !mUpsertSupported;
+        StatementScope scope = new StatementScope();
+        long rowId = FAILED_ROW_ID;
+
+        if (inTransaction) {
+            beginDatabaseTransaction();
+        }
+
+        try {
+            rowId = storeEntity(scope, tableName, entity, mode);
+            if (inTransaction && rowId != FAILED_ROW_ID) {
+                setDatabaseTransactionSuccessful();
+            }
+        } finally {
+            if (inTransaction) {
+                endDatabaseTransaction();
+            }
+
+            scope.release();
+        }
+
+        boolean success = rowId != FAILED_ROW_ID;
+        if (success) {
+            onEntityStored(tableName, entity, mode);
+        }
+
+        if (success || mode != StoreMode.Upsert) {
+            entity.setStored();
+            entity.onDataCommitted(success ? rowId : BaseEntity.INVALID_ID);
+        }
+
+        return success;
+    }
+
+    //
+    // SQLiteDatabase.update() binds the WHERE args as strings, bind them with their types.
+    //
+    private int updateRows(String tableName, ContentValues values,
+            String condition, Object[] bindArgs) {
+
+        if (values.size() == 0) {
+            return 0;
+        }
+
+        List<Object> args = new ArrayList<Object>();
+        StringBuilder builder = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        for (Map.Entry<String, Object> entry : values.valueSet()) {
+            if (!args.isEmpty()) {
+                builder.append(", ");
+            }
+
+            builder.append(entry.getKey()).append(" = ?");
+            args.add(entry.getValue());
+        }
+
+        if (!TextUtils.isEmpty(condition)) {
+            builder.append(" WHERE ").append(condition);
+        }
+
+        if (bindArgs != null) {
+            Collections.addAll(args, bindArgs);
+        }
+
+        SQLiteStatement statement = mDatabase.compileStatement(builder.toString());
+        try {
+            final int count = args.size();
+            for (int i = 0; i < count; ++i) {
+                bindValue(statement, i + 1, args.get(i));
+            }
+
+            return statement.executeUpdateDelete();
+        } finally {
+            statement.close();
+        }
+    }
+
+    //
+    // a projection only loaded some columns, the others would be written back as defaults.
+    //
+    private static boolean isPartial(BaseEntity entity) {
+        return entity.getState() == BaseEntity.State.Partial;
+    }
+
+    private static boolean canStore(BaseEntity entity, StoreMode mode) {
+        BaseEntity.State state = entity.getState();
+        if (mode == StoreMode.Insert) {
+            return state == BaseEntity.State.New;
+        }
+
+        return state == BaseEntity.State.New || state == BaseEntity.State.Stored;
+    }
+
+    private long storeEntity(
+            StatementScope scope, String tableName, BaseEntity entity, StoreMode mode) {
+
+        try {
+            if (mode == StoreMode.Upsert) {
+                return upsertEntity(scope, tableName, entity);
+            }
+
+            return insertEntity(scope, tableName, entity, mode == StoreMode.Replace
+                    ? StatementCache.Kind.Replace : StatementCache.Kind.Insert);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return FAILED_ROW_ID;
+    }
+
+    private long insertEntity(StatementScope scope, String tableName,
+            BaseEntity entity, StatementCache.Kind kind) throws IllegalAccessException {
+
+        Class<? extends BaseEntity> clazz = entity.getClass();
+        SQLiteStatement statement = scope.get(tableName, clazz, kind);
+        if (statement == null) {
+            return FAILED_ROW_ID;
+        }
+
+        bindEntity(statement, EntityUtils.getColumnFields(clazz), entity);
+        long rowId = statement.executeInsert();
+        return rowId != BaseEntity.INVALID_ID ? rowId : FAILED_ROW_ID;
+    }
+
+    private long upsertEntity(StatementScope scope, String tableName, BaseEntity entity)
+            throws IllegalAccessException {
+
+        Class<? extends BaseEntity> clazz = entity.getClass();
+        List<Field> keys = EntityUtils.getPrimaryKeyFields(clazz);
+        if (keys.isEmpty() || isUnassignedAutoIncrementKey(keys, entity)) {
+            // nothing can conflict, plain insert.
+            return insertEntity(scope, tableName, entity, StatementCache.Kind.Insert);
+        }
+
+        SQLiteStatement statement;
+        if (mUpsertSupported) {
+            statement = scope.get(tableName, clazz, StatementCache.Kind.Upsert);
+            if (statement == null) {
+                return FAILED_ROW_ID;
+            }
+
+            bindEntity(statement, EntityUtils.getColumnFields(clazz), entity);
+            statement.executeUpdateDelete();
+            return getKeyRowId(keys, entity);
         }
 
-        String tableName = EntityUtils.getTableName(clazz);
-        if (TextUtils.isEmpty(tableName)) {
-            return false;
+        //
+        // SQLite < 3.24.0 has no UPSERT, update by key first, then insert.
+        //
+        List<Field> fields = EntityUtils.getNonKeyColumnFields(clazz);
+        if (fields.isEmpty()) {
+            insertEntity(scope, tableName, entity, StatementCache.Kind.InsertOrIgnore);
+            return getKeyRowId(keys, entity);
         }
 
-        Field primaryKey = EntityUtils.getPrimaryKeyField(clazz);
-        if (primaryKey == null) {
-            return false;
+        statement = scope.get(tableName, clazz, StatementCache.Kind.UpdateByKey);
+        if (statement == null) {
+            return FAILED_ROW_ID;
         }
 
-        int effectRows = mDatabase.delete(
-                tableName, primaryKey.getName() + "=?",
-                new String[]{String.valueOf(primary)});
+        bindEntity(statement, fields, entity);
+        bindKeys(statement, fields.size() + 1, keys, entity);
+        if (statement.executeUpdateDelete() > 0) {
+            return getKeyRowId(keys, entity);
+        }
 
-        return effectRows > 0;
+        return insertEntity(scope, tableName, entity, StatementCache.Kind.Insert);
     }
 
-    @Override
-    public boolean insertNew(BaseEntity entity) {
-        return doStoreNewOrReplace(entity, false);
+    private static boolean isUnassignedAutoIncrementKey(List<Field> keys, BaseEntity entity)
+            throws IllegalAccessException {
+
+        if (keys.size() != 1 || !keys.get(0).isAnnotationPresent(AutoIncrement.class)) {
+            return false;
+        }
+
+        Object value = getFieldValue(keys.get(0), entity);
+        return value == null
+                || (value instanceof Number && ((Number) value).longValue() == BaseEntity.INVALID_ID);
     }
 
-    @Override
-    public boolean replace(BaseEntity entity) {
-        return doStoreNewOrReplace(entity, true);
+    private static long getKeyRowId(List<Field> keys, BaseEntity entity)
+            throws IllegalAccessException {
+
+        //
+        // an INTEGER PRIMARY KEY is the alias of rowid.
+        //
+        if (keys.size() == 1) {
+            Object value = getFieldValue(keys.get(0), entity);
+            if (value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte) {
+                return ((Number) value).longValue();
+            }
+        }
+
+        return BaseEntity.INVALID_ID;
     }
 
-    private boolean doStoreNewOrReplace(BaseEntity entity, boolean isReplace) {
-        if (mIsClosed || entity == null) {
+    @Override
+    public boolean update(BaseEntity entity) {
+        if (checkClosed() || entity == null || isPartial(entity)) {
             return false;
         }
 
-        BaseEntity.State state = entity.getState();
-        if (isReplace) {
-            if (state != BaseEntity.State.New
-                    && state != BaseEntity.State.Stored) {
-                return false;
-            }
-        } else {
-            if (state != BaseEntity.State.New) {
-                return false;
-            }
+        Class<? extends BaseEntity> clazz = entity.getClass();
+        List<Field> keys = EntityUtils.getPrimaryKeyFields(clazz);
+        if (keys.isEmpty()) {
+            return update(entity, null);
         }
 
         String tableName = entity.getTableName();
@@ -698,51 +2427,69 @@ public class SQLiteORMSupporter implements ORMSupporter {
 
         entity.onPreCommit();
 
-        long rowId = BaseEntity.INVALID_ID;
-        ContentValues values = createContentValues(entity);
-        try {
-            if (isReplace) {
-                rowId = mDatabase.replace(tableName, null, values);
-            } else {
-                rowId = mDatabase.insert(tableName, null, values);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        List<Field> fields = EntityUtils.getNonKeyColumnFields(clazz);
+        List<Field> dirtyFields = entity.getDirtyFields();
+        long columnMask = 0;
 
-        entity.setStored();
-        entity.onDataCommitted(rowId);
+        if (dirtyFields != null) {
+            if (dirtyFields.isEmpty()) {
+                // nothing changed since loaded or stored, skip the write.
+                entity.onDataUpdated();
+                return true;
+            }
 
-        return rowId != BaseEntity.INVALID_ID;
-    }
+            if (dirtyFields.size() < fields.size()) {
+                columnMask = getColumnMask(fields, dirtyFields);
+            }
+        }
 
-    @Override
-    public boolean update(BaseEntity entity) {
-        if (mIsClosed || entity == null) {
+        StatementCache.CachedStatement cached = columnMask != 0
+                ? acquireStatement(tableName, clazz, StatementCache.Kind.UpdateColumnsByKey, columnMask)
+                : acquireStatement(tableName, clazz, StatementCache.Kind.UpdateByKey);
+        if (cached == null) {
             return false;
         }
 
-        Field primaryKey = EntityUtils.getPrimaryKeyField(entity.getClass());
+        if (columnMask != 0) {
+            fields = dirtyFields;
+        }
 
+        int rowCount = 0;
         try {
-            String condition = null;
-            if (primaryKey != null) {
-                Object primaryValue = primaryKey.get(entity);
-                condition = String.format("%s = %s",
-                        primaryKey.getName(), primaryValue.toString());
-            }
-
-            return update(entity, condition);
+            //
+            // UPDATE ... SET field1 = ?, ... WHERE primaryKey = ?
+            //
+            SQLiteStatement statement = cached.getStatement();
+            bindEntity(statement, fields, entity);
+            bindKeys(statement, fields.size() + 1, keys, entity);
+            rowCount = statement.executeUpdateDelete();
+        } catch (SQLException e) {
+            e.printStackTrace();
         } catch (IllegalAccessException e) {
             e.printStackTrace();
+        } finally {
+            mStatementCache.release(cached);
         }
 
-        return false;
+        if (rowCount > 0) {
+            // a failed write keeps the old snapshot, the changes stay dirty for a retry.
+            onEntityChanged(tableName, entity);
+            entity.setStored();
+        }
+
+        entity.onDataUpdated();
+
+        return rowCount > 0;
     }
 
     @Override
     public boolean update(BaseEntity entity, String condition) {
-        if (mIsClosed || entity == null) {
+        return update(entity, condition, null);
+    }
+
+    @Override
+    public boolean update(BaseEntity entity, String condition, Object[] bindArgs) {
+        if (checkClosed() || entity == null || isPartial(entity)) {
             return false;
         }
 
@@ -755,29 +2502,165 @@ public class SQLiteORMSupporter implements ORMSupporter {
         int rowCount = 0;
         try {
             ContentValues values = createContentValues(entity);
-            rowCount = mDatabase.update(tableName, values, condition, null);
+            rowCount = updateRows(tableName, values, condition, bindArgs);
         } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        entity.setStored();
+        if (rowCount > 0) {
+            onTableChanged(tableName);
+            entity.setStored();
+        }
+
         entity.onDataUpdated();
 
         return rowCount > 0;
     }
 
     @Override
-    public boolean createTable(Class<? extends BaseEntity> clazz) {
-        BaseEntity entity = null;
+    public BatchResult insertAll(Collection<? extends BaseEntity> entities) {
+        return insertAll(entities, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    @Override
+    public BatchResult insertAll(Collection<? extends BaseEntity> entities, int chunkSize) {
+        return doStoreAll(entities, StoreMode.Insert, chunkSize);
+    }
+
+    @Override
+    public BatchResult replaceAll(Collection<? extends BaseEntity> entities) {
+        return replaceAll(entities, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    @Override
+    public BatchResult replaceAll(Collection<? extends BaseEntity> entities, int chunkSize) {
+        return doStoreAll(entities, StoreMode.Replace, chunkSize);
+    }
+
+    @Override
+    public BatchResult upsertAll(Collection<? extends BaseEntity> entities) {
+        return upsertAll(entities, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    @Override
+    public BatchResult upsertAll(Collection<? extends BaseEntity> entities, int chunkSize) {
+        return doStoreAll(entities, StoreMode.Upsert, chunkSize);
+    }
+
+    private BatchResult doStoreAll(
+            Collection<? extends BaseEntity> entities, StoreMode mode, int chunkSize) {
+
+        if (checkClosed() || entities == null) {
+            return null;
+        }
+
+        if (chunkSize <= 0) {
+            chunkSize = DEFAULT_BATCH_CHUNK_SIZE;
+        }
+
+        BatchResult result = new BatchResult(entities.size());
+        StatementScope scope = new StatementScope();
+        Set<Class<?>> failedClasses = new HashSet<>();
+        Iterator<? extends BaseEntity> iterator = entities.iterator();
 
+        int index = 0;
         try {
-            entity = clazz.newInstance();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
+            while (iterator.hasNext()) {
+                //
+                // one transaction per chunk, keep the journal small.
+                //
+                beginDatabaseTransaction();
+
+                try {
+                    int chunkCount = 0;
+                    while (chunkCount < chunkSize && iterator.hasNext()) {
+                        BaseEntity entity = iterator.next();
+                        final int position = index++;
+                        if (entity == null || !canStore(entity, mode)
+                                || failedClasses.contains(entity.getClass())) {
+                            continue;
+                        }
+
+                        String tableName = entity.getTableName();
+                        if (!createTable(tableName, entity)) {
+                            // no table, the rest of this class would fail the same way.
+                            failedClasses.add(entity.getClass());
+                            continue;
+                        }
+
+                        entity.onPreCommit();
+
+                        long rowId = storeEntity(scope, tableName, entity, mode);
+                        ++chunkCount;
+
+                        if (rowId != FAILED_ROW_ID) {
+                            onEntityStored(tableName, entity, mode);
+                            result.setSuccess(position, rowId);
+                            entity.setStored();
+                            entity.onDataCommitted(rowId);
+                        }
+                    }
+
+                    setDatabaseTransactionSuccessful();
+                } finally {
+                    endDatabaseTransaction();
+                }
+            }
+        } finally {
+            scope.release();
+        }
+
+        return result;
+    }
+
+    //
+    // every write reports the changed table or row here,
+    // the caches drop what they keep of it, they are never refreshed in place.
+    //
+    private void onTableChanged(String tableName) {
+        mEntityCache.invalidate(tableName);
+        mQueryCache.invalidate(tableName);
+        notifyTableChanged(tableName);
+    }
+
+    private void onRowChanged(String tableName, Object primary) {
+        if (primary == null) {
+            onTableChanged(tableName);
+            return;
+        }
+
+        mEntityCache.invalidate(tableName, String.valueOf(primary));
+        mQueryCache.invalidate(tableName);
+        notifyTableChanged(tableName);
+    }
+
+    private void onEntityChanged(String tableName, BaseEntity entity) {
+        List<Field> keys = EntityUtils.getPrimaryKeyFields(entity.getClass());
+        if (keys.size() != 1) {
+            onTableChanged(tableName);
+            return;
+        }
+
+        try {
+            onRowChanged(tableName, getFieldValue(keys.get(0), entity));
         } catch (IllegalAccessException e) {
             e.printStackTrace();
+            onTableChanged(tableName);
+        }
+    }
+
+    private void onEntityStored(String tableName, BaseEntity entity, StoreMode mode) {
+        if (mode == StoreMode.Replace) {
+            // REPLACE also deletes the rows conflicting on any UNIQUE column.
+            onTableChanged(tableName);
+        } else {
+            onEntityChanged(tableName, entity);
         }
+    }
 
+    @Override
+    public boolean createTable(Class<? extends BaseEntity> clazz) {
+        BaseEntity entity = newEntity(clazz);
         if (entity == null) {
             return false;
         }
@@ -791,33 +2674,119 @@ public class SQLiteORMSupporter implements ORMSupporter {
         return createTable(entity.getTableName(), entity);
     }
 
-    private boolean createTable(String tableName, BaseEntity entity) {
-        if (mTableCache.contains(tableName)) {
-            return true;
+    @Override
+    public boolean createTables(Class<?>... entityClasses) {
+        if (checkClosed() || entityClasses == null) {
+            return false;
         }
 
-        if (mIsClosed) {
-            return false;
+        boolean success = true;
+        beginDatabaseTransaction();
+        try {
+            for (Class<?> clazz : entityClasses) {
+                if (clazz == null || !BaseEntity.class.isAssignableFrom(clazz)
+                        || !createTable(clazz.asSubclass(BaseEntity.class))) {
+                    success = false;
+                    break;
+                }
+            }
+
+            if (success) {
+                setDatabaseTransactionSuccessful();
+            }
+        } finally {
+            endDatabaseTransaction();
         }
 
-        if (DBUtils.isTableExist(mDatabase, tableName)) {
-            mTableCache.add(tableName);
+        if (!success) {
+            // rolled back, forget the tables recorded in the transaction.
+            loadSchema();
+        }
+
+        return success;
+    }
+
+    private static BaseEntity newEntity(Class<? extends BaseEntity> clazz) {
+        try {
+            return clazz.newInstance();
+        } catch (InstantiationException e) {
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    //
+    // the table and its indexes are checked once per process,
+    // nothing is executed when the table, the indexes and their fingerprints are all known.
+    //
+    private boolean createTable(String tableName, BaseEntity entity) {
+        if (mVerifiedTables.contains(tableName)) {
             return true;
         }
 
+        if (checkClosed()) {
+            return false;
+        }
+
         String createSql = EntityUtils.generateCreateStatement(entity);
         try {
-            mDatabase.execSQL(createSql);
+            if (!mTableCache.contains(tableName) && !DBUtils.isTableExist(mDatabase, tableName)) {
+                mDatabase.execSQL(createSql);
+            }
+
             mTableCache.add(tableName);
-            return true;
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
 
-        return false;
+        if (!mSchemaFingerprints.containsKey(tableName)) {
+            // a table created before fingerprints were kept is taken as it is.
+            storeFingerprint(tableName, DBUtils.getFingerprint(createSql));
+        }
+
+        createIndices(entity);
+        mVerifiedTables.add(tableName);
+        return true;
+    }
+
+    //
+    // an index is derived data, so one whose definition changed is rebuilt.
+    // a failed index is reported but doesn't fail the table.
+    //
+    private void createIndices(BaseEntity entity) {
+        for (EntityUtils.IndexStatement index : EntityUtils.generateIndexStatements(entity)) {
+            String fingerprint = DBUtils.getFingerprint(index.mSql);
+            boolean exists = mIndexCache.contains(index.mName);
+            if (exists && fingerprint.equals(mSchemaFingerprints.get(index.mName))) {
+                continue;
+            }
+
+            try {
+                if (exists && mSchemaFingerprints.containsKey(index.mName)) {
+                    mDatabase.execSQL("DROP INDEX IF EXISTS " + index.mName + ";");
+                }
+
+                mDatabase.execSQL(index.mSql);
+                mIndexCache.add(index.mName);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                continue;
+            }
+
+            storeFingerprint(index.mName, fingerprint);
+        }
     }
 
     private ContentValues createContentValues(BaseEntity entity) {
+        EntityMapper<BaseEntity> mapper = EntityMappers.getMapper(entity.getClass());
+        if (mapper != null) {
+            return createContentValues(mapper, entity);
+        }
+
         ContentValues values = new ContentValues();
         List<Field> fields = EntityUtils.getEntityFields(entity.getClass());
 
@@ -875,6 +2844,160 @@ public class SQLiteORMSupporter implements ORMSupporter {
         return values;
     }
 
+    private static ContentValues createContentValues(
+            EntityMapper<BaseEntity> mapper, BaseEntity entity) {
+
+        Field autoIncrementKey = EntityUtils.getAutoIncrementKeyField(entity.getClass());
+        int autoIncrementColumn = autoIncrementKey != null
+                ? mapper.getColumnIndex(autoIncrementKey.getName()) : -1;
+
+        final int count = mapper.getColumnNames().length;
+        ContentValues values = new ContentValues(count);
+
+        for (int i = 0; i < count; ++i) {
+            if (i == autoIncrementColumn) {
+                Object ref = mapper.getValue(entity, i);
+                if (ref instanceof Number
+                        && ((Number) ref).longValue() == BaseEntity.INVALID_ID) {
+                    // let SQLite generate the AUTOINCREMENT key.
+                    continue;
+                }
+            }
+
+            mapper.putValue(entity, i, values);
+        }
+
+        return values;
+    }
+
+    private StatementCache.CachedStatement acquireStatement(
+            String tableName, Class<? extends BaseEntity> clazz, StatementCache.Kind kind) {
+
+        try {
+            return mStatementCache.acquire(mDatabase, tableName, clazz, kind);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private StatementCache.CachedStatement acquireStatement(String tableName,
+            Class<? extends BaseEntity> clazz, StatementCache.Kind kind, long columnMask) {
+
+        try {
+            return mStatementCache.acquire(mDatabase, tableName, clazz, kind, columnMask);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private void bindKeys(SQLiteStatement statement, int bindIndex,
+            List<Field> keys, BaseEntity entity) throws IllegalAccessException {
+
+        for (Field key : keys) {
+            bindValue(statement, bindIndex++, getFieldValue(key, entity));
+        }
+    }
+
+    private static long getColumnMask(List<Field> fields, List<Field> selected) {
+        if (fields.size() > Long.SIZE) {
+            // too many columns for a mask, fall back to update all columns.
+            return 0;
+        }
+
+        long mask = 0;
+        int selectedIndex = 0;
+        final int count = fields.size();
+
+        for (int i = 0; i < count && selectedIndex < selected.size(); ++i) {
+            if (fields.get(i) == selected.get(selectedIndex)) {
+                mask |= 1L << i;
+                ++selectedIndex;
+            }
+        }
+
+        return mask;
+    }
+
+    private void bindEntity(SQLiteStatement statement, List<Field> fields, BaseEntity entity)
+            throws IllegalAccessException {
+
+        statement.clearBindings();
+
+        EntityMapper<BaseEntity> mapper = EntityMappers.getMapper(entity.getClass());
+        Field autoIncrementKey = EntityUtils.getAutoIncrementKeyField(entity.getClass());
+
+        final int count = fields.size();
+        for (int i = 0; i < count; ++i) {
+            Field f = fields.get(i);
+            final int bindIndex = i + 1;
+            final int column = mapper != null ? mapper.getColumnIndex(f.getName()) : -1;
+
+            if (f == autoIncrementKey) {
+                Object ref = column != -1 ? mapper.getValue(entity, column) : f.get(entity);
+                if (ref instanceof Number
+                        && ((Number) ref).longValue() == BaseEntity.INVALID_ID) {
+                    // let SQLite generate the AUTOINCREMENT key.
+                    statement.bindNull(bindIndex);
+                    continue;
+                }
+            }
+
+            if (column != -1) {
+                mapper.bindValue(entity, column, statement, bindIndex);
+            } else {
+                bindValue(statement, bindIndex, f.get(entity));
+            }
+        }
+    }
+
+    //
+    // read a column field through the generated mapper when there is one.
+    //
+    private static Object getFieldValue(Field f, BaseEntity entity)
+            throws IllegalAccessException {
+
+        EntityMapper<BaseEntity> mapper = EntityMappers.getMapper(entity.getClass());
+        if (mapper != null) {
+            int column = mapper.getColumnIndex(f.getName());
+            if (column != -1) {
+                return mapper.getValue(entity, column);
+            }
+        }
+
+        return f.get(entity);
+    }
+
+    static void bindValue(SQLiteProgram statement, int bindIndex, Object ref) {
+        if (ref == null) {
+            statement.bindNull(bindIndex);
+        } else if (ref instanceof Integer || ref instanceof Long
+                || ref instanceof Short || ref instanceof Byte) {
+            statement.bindLong(bindIndex, ((Number) ref).longValue());
+        } else if (ref instanceof String) {
+            statement.bindString(bindIndex, (String) ref);
+        } else if (ref instanceof byte[]) {
+            statement.bindBlob(bindIndex, (byte[]) ref);
+        } else if (ref instanceof Float || ref instanceof Double) {
+            statement.bindDouble(bindIndex, ((Number) ref).doubleValue());
+        } else if (ref instanceof Boolean) {
+            statement.bindLong(bindIndex, (Boolean) ref ? 1 : 0);
+        } else if (ref instanceof Byte[]) {
+            Byte[] boxed = (Byte[]) ref;
+            byte[] value = new byte[boxed.length];
+            for (int j = 0; j < boxed.length; ++j) {
+                value[j] = boxed[j] != null ? boxed[j] : 0;
+            }
+
+            statement.bindBlob(bindIndex, value);
+        } else {
+            statement.bindNull(bindIndex);
+        }
+    }
+
     private <T extends BaseEntity> List<T> cursorToEntityList(
             Class<? extends BaseEntity> clazz,
             String tableName,
@@ -884,9 +3007,13 @@ public class SQLiteORMSupporter implements ORMSupporter {
             return null;
         }
 
-        List<T> result = new ArrayList<T>();
+        //
+        // resolve the columns once, then reuse for every row.
+        //
+        RowBindingPlan plan = RowBindingPlan.obtain(clazz, cursor);
+        List<T> result = new ArrayList<T>(cursor.getCount());
         do {
-            T entity = cursorToEntity(clazz, tableName, cursor);
+            T entity = plan.readEntity(cursor);
             result.add(entity);
         } while (cursor.moveToNext());
 
@@ -898,62 +3025,50 @@ public class SQLiteORMSupporter implements ORMSupporter {
             String tableName,
             Cursor cursor) {
 
-        T entity = null;
+        return RowBindingPlan.obtain(clazz, cursor).readEntity(cursor);
+    }
 
-        try {
-            entity = (T) clazz.newInstance();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
 
-        if (entity == null) {
-            return null;
-        }
+    //
+    // statements checked out of the cache for one store operation or batch.
+    //
+    private class StatementScope {
+        private List<StatementCache.CachedStatement> mStatements = new ArrayList<>();
+        private Set<String> mFailedKeys = new HashSet<>();
 
-        entity.onPreLoad();
+        SQLiteStatement get(String tableName,
+                Class<? extends BaseEntity> clazz, StatementCache.Kind kind) {
 
-        try {
-            List<Field> fields = EntityUtils.getEntityFields(clazz);
-            for (Field f : fields) {
-                String name = f.getName();
-                int column = cursor.getColumnIndex(name);
+            for (StatementCache.CachedStatement cached : mStatements) {
+                if (cached.matches(tableName, clazz, kind)) {
+                    return cached.getStatement();
+                }
+            }
 
-                if (column != -1) {
-                    Class<?> type = f.getType();
-                    if (!f.isAccessible()) {
-                        f.setAccessible(true);
-                    }
+            //
+            // a statement that failed to compile fails again, don't retry it for every row.
+            //
+            String failedKey = tableName + ':' + clazz.getName() + ':' + kind.ordinal();
+            if (mFailedKeys.contains(failedKey)) {
+                return null;
+            }
 
-                    if (type == Integer.class || type == int.class) {
-                        f.set(entity, cursor.getInt(column));
-                    } else if (type == Long.class || type == long.class) {
-                        f.set(entity, cursor.getLong(column));
-                    } else if (type == String.class) {
-                        f.set(entity, cursor.getString(column));
-                    } else if (type == byte[].class || type == Byte[].class) {
-                        f.set(entity, cursor.getBlob(column));
-                    } else if (type == Short.class || type == short.class) {
-                        f.set(entity, (short) cursor.getInt(column));
-                    } else if (type == Float.class || type == float.class) {
-                        f.set(entity, cursor.getFloat(column));
-                    } else if (type == Double.class || type == double.class) {
-                        f.set(entity, cursor.getDouble(column));
-                    } else if (type == Byte.class || type == byte.class) {
-                        f.set(entity, (byte) cursor.getInt(column));
-                    } else if (type == Boolean.class || type == boolean.class) {
-                        f.set(entity, cursor.getInt(column) != 0);
-                    }
-                }
+            StatementCache.CachedStatement cached = acquireStatement(tableName, clazz, kind);
+            if (cached == null) {
+                mFailedKeys.add(failedKey);
+                return null;
             }
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
+
+            mStatements.add(cached);
+            return cached.getStatement();
         }
 
-        entity.setStored();
-        entity.onDataLoaded();
+        void release() {
+            for (StatementCache.CachedStatement cached : mStatements) {
+                mStatementCache.release(cached);
+            }
 
-        return (T) entity.toRealEntity();
+            mStatements.clear();
+        }
     }
 }
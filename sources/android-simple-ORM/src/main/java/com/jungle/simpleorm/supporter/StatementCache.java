@@ -0,0 +1,326 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.supporter;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.utils.EntityUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StatementCache {
+
+    public static final int DEFAULT_MAX_SIZE = 32;
+
+
+    public static enum Kind {
+        Insert,
+        InsertOrIgnore,
+        Replace,
+        Upsert,
+        UpdateByKey,
+        UpdateColumnsByKey,
+        DeleteByKey,
+        DeleteByKeys,
+        QueryByKey,
+        QueryByKeys,
+    }
+
+
+    public static class CachedStatement {
+        private Key mKey;
+        private SQLiteStatement mStatement;
+        private int mGeneration;
+
+        private CachedStatement(Key key, SQLiteStatement statement, int generation) {
+            mKey = key;
+            mStatement = statement;
+            mGeneration = generation;
+        }
+
+        public SQLiteStatement getStatement() {
+            return mStatement;
+        }
+
+        boolean matches(String tableName, Class<? extends BaseEntity> clazz, Kind kind) {
+            return mKey.mKind == kind
+                    && mKey.mColumnMask == 0
+                    && mKey.mClazz == clazz
+                    && mKey.mTableName.equals(tableName);
+        }
+    }
+
+
+    private static class Key {
+        private final String mTableName;
+        private final Class<? extends BaseEntity> mClazz;
+        private final Kind mKind;
+        private final long mColumnMask;
+
+        Key(String tableName, Class<? extends BaseEntity> clazz, Kind kind, long columnMask) {
+            mTableName = tableName;
+            mClazz = clazz;
+            mKind = kind;
+            mColumnMask = columnMask;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return mKind == other.mKind
+                    && mColumnMask == other.mColumnMask
+                    && mClazz == other.mClazz
+                    && mTableName.equals(other.mTableName);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = (mTableName.hashCode() * 31 + mClazz.hashCode()) * 31 + mKind.hashCode();
+            return hash * 31 + (int) (mColumnMask ^ (mColumnMask >>> 32));
+        }
+    }
+
+
+    private final int mMaxSize;
+    private final Map<Key, String> mSqlCache;
+    private final Map<Key, SQLiteStatement> mStatements;
+
+    private int mGeneration;
+    private long mHitCount;
+    private long mMissCount;
+
+
+    public StatementCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public StatementCache(int maxSize) {
+        mMaxSize = maxSize;
+        final int maxSqlSize = maxSize * 2;
+        mSqlCache = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > maxSqlSize;
+            }
+        };
+
+        mStatements = new LinkedHashMap<Key, SQLiteStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SQLiteStatement> eldest) {
+                if (size() <= mMaxSize) {
+                    return false;
+                }
+
+                eldest.getValue().close();
+                return true;
+            }
+        };
+    }
+
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized int size() {
+        return mStatements.size();
+    }
+
+    synchronized String getSql(
+            String tableName, Class<? extends BaseEntity> clazz, Kind kind) {
+
+        return getSql(new Key(tableName, clazz, kind, 0));
+    }
+
+    synchronized String getSql(String tableName,
+            Class<? extends BaseEntity> clazz, Kind kind, long columnMask) {
+
+        return getSql(new Key(tableName, clazz, kind, columnMask));
+    }
+
+    private String getSql(Key key) {
+        String sql = mSqlCache.get(key);
+        if (sql == null) {
+            sql = generateSql(key);
+            if (sql != null) {
+                mSqlCache.put(key, sql);
+            }
+        }
+
+        return sql;
+    }
+
+    //
+    // the statement is owned by the caller until release() is called.
+    //
+    CachedStatement acquire(SQLiteDatabase db,
+            String tableName, Class<? extends BaseEntity> clazz, Kind kind) {
+
+        return acquire(db, new Key(tableName, clazz, kind, 0));
+    }
+
+    //
+    // UpdateColumnsByKey: bit i of columnMask selects EntityUtils.getNonKeyColumnFields(clazz)[i].
+    // DeleteByKeys & QueryByKeys: columnMask is the count of keys.
+    //
+    CachedStatement acquire(SQLiteDatabase db,
+            String tableName, Class<? extends BaseEntity> clazz, Kind kind, long columnMask) {
+
+        return acquire(db, new Key(tableName, clazz, kind, columnMask));
+    }
+
+    private CachedStatement acquire(SQLiteDatabase db, Key key) {
+        String sql;
+        int generation;
+
+        synchronized (this) {
+            generation = mGeneration;
+            SQLiteStatement statement = mStatements.remove(key);
+            if (statement != null) {
+                ++mHitCount;
+                return new CachedStatement(key, statement, generation);
+            }
+
+            ++mMissCount;
+            sql = getSql(key);
+        }
+
+        if (sql == null) {
+            return null;
+        }
+
+        return new CachedStatement(key, db.compileStatement(sql), generation);
+    }
+
+    void release(CachedStatement cached) {
+        if (cached == null) {
+            return;
+        }
+
+        SQLiteStatement statement = cached.mStatement;
+        statement.clearBindings();
+
+        synchronized (this) {
+            if (cached.mGeneration == mGeneration && !mStatements.containsKey(cached.mKey)) {
+                mStatements.put(cached.mKey, statement);
+                return;
+            }
+        }
+
+        statement.close();
+    }
+
+    synchronized void invalidate(String tableName) {
+        ++mGeneration;
+
+        Iterator<Map.Entry<Key, SQLiteStatement>> iterator = mStatements.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, SQLiteStatement> entry = iterator.next();
+            if (entry.getKey().mTableName.equals(tableName)) {
+                entry.getValue().close();
+                iterator.remove();
+            }
+        }
+
+        Iterator<Key> sqlIterator = mSqlCache.keySet().iterator();
+        while (sqlIterator.hasNext()) {
+            if (sqlIterator.next().mTableName.equals(tableName)) {
+                sqlIterator.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        ++mGeneration;
+
+        for (SQLiteStatement statement : mStatements.values()) {
+            statement.close();
+        }
+
+        mStatements.clear();
+        mSqlCache.clear();
+    }
+
+    private static String generateSql(Key key) {
+        String tableName = key.mTableName;
+        Class<? extends BaseEntity> clazz = key.mClazz;
+
+        switch (key.mKind) {
+            case Insert:
+                return EntityUtils.generateInsertStatement(clazz, tableName, false);
+            case InsertOrIgnore:
+                return EntityUtils.generateInsertOrIgnoreStatement(clazz, tableName);
+            case Replace:
+                return EntityUtils.generateInsertStatement(clazz, tableName, true);
+            case Upsert:
+                return EntityUtils.generateUpsertStatement(clazz, tableName);
+            case UpdateByKey:
+                return EntityUtils.generateUpdateByKeyStatement(clazz, tableName);
+            case UpdateColumnsByKey:
+                return EntityUtils.generateUpdateByKeyStatement(
+                        clazz, tableName, selectColumns(clazz, key.mColumnMask));
+            case DeleteByKey:
+                return EntityUtils.generateDeleteByKeyStatement(clazz, tableName);
+            case DeleteByKeys:
+                return EntityUtils.generateDeleteByKeysStatement(
+                        clazz, tableName, (int) key.mColumnMask);
+            case QueryByKey:
+                return EntityUtils.generateQueryByKeyStatement(clazz, tableName);
+            case QueryByKeys:
+                return EntityUtils.generateQueryByKeysStatement(
+                        clazz, tableName, (int) key.mColumnMask);
+        }
+
+        return null;
+    }
+
+
+    private static List<Field> selectColumns(Class<? extends BaseEntity> clazz, long columnMask) {
+        List<Field> fields = EntityUtils.getNonKeyColumnFields(clazz);
+        List<Field> result = new ArrayList<>();
+
+        final int count = Math.min(fields.size(), Long.SIZE);
+        for (int i = 0; i < count; ++i) {
+            if ((columnMask & (1L << i)) != 0) {
+                result.add(fields.get(i));
+            }
+        }
+
+        return result;
+    }
+}
@@ -26,9 +26,23 @@ import android.text.TextUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
 
 public class DBUtils {
 
+    public static final int SQLITE_VERSION_UPSERT = 3024000;
+
+    //
+    // SQLITE_MAX_VARIABLE_NUMBER before SQLite 3.32.0.
+    //
+    public static final int MAX_HOST_PARAMETERS = 999;
+
+
     public static boolean isTableExist(SQLiteDatabase db, String tbl) {
         if (db == null || TextUtils.isEmpty(tbl)) {
             return false;
@@ -38,9 +52,8 @@ public class DBUtils {
             return true;
         }
 
-        String sql = "SELECT count(*) FROM sqlite_master WHERE "
-                + "type='table' AND name='" + tbl + "';";
-        Cursor cursor = db.rawQuery(sql, null);
+        String sql = "SELECT count(*) FROM sqlite_master WHERE type='table' AND name=?;";
+        Cursor cursor = db.rawQuery(sql, new String[] {tbl});
 
         boolean exist = false;
         if (cursor != null) {
@@ -54,6 +67,167 @@ public class DBUtils {
         return exist;
     }
 
+    //
+    // all the tables or indexes of `db`, read from sqlite_master in one query.
+    //
+    public static Set<String> getTableNames(SQLiteDatabase db) {
+        return getSchemaNames(db, "table");
+    }
+
+    public static Set<String> getIndexNames(SQLiteDatabase db) {
+        return getSchemaNames(db, "index");
+    }
+
+    private static Set<String> getSchemaNames(SQLiteDatabase db, String type) {
+        Set<String> result = new HashSet<>();
+        if (db == null) {
+            return result;
+        }
+
+        Cursor cursor = db.rawQuery(
+                "SELECT name FROM sqlite_master WHERE type=?;", new String[] {type});
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                result.add(cursor.getString(0));
+            }
+
+            cursor.close();
+        }
+
+        return result;
+    }
+
+    //
+    // hex SHA-1 of a schema statement, to tell whether it changed since it was stored.
+    //
+    public static String getFingerprint(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(sql.getBytes("UTF-8"));
+
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16))
+                        .append(Character.forDigit(b & 0xF, 16));
+            }
+
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        } catch (UnsupportedEncodingException e) {
+            e.printStackTrace();
+        }
+
+        return Integer.toHexString(sql.hashCode());
+    }
+
+    public static int getSQLiteVersion(SQLiteDatabase db) {
+        if (db == null) {
+            return 0;
+        }
+
+        Cursor cursor = db.rawQuery("SELECT sqlite_version();", null);
+
+        int version = 0;
+        if (cursor != null) {
+            if (cursor.moveToNext()) {
+                version = parseSQLiteVersion(cursor.getString(0));
+            }
+
+            cursor.close();
+        }
+
+        return version;
+    }
+
+    public static int parseSQLiteVersion(String version) {
+        if (TextUtils.isEmpty(version)) {
+            return 0;
+        }
+
+        //
+        // "3.24.0" -> 3024000, same as SQLITE_VERSION_NUMBER.
+        //
+        String[] parts = version.split("\\.");
+        int result = 0;
+        for (int i = 0; i < 3; ++i) {
+            result *= 1000;
+            if (i < parts.length) {
+                try {
+                    result += Integer.parseInt(parts[i].trim());
+                } catch (NumberFormatException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    //
+    // the lower-case identifiers (table & column names, keywords) of a SQL text,
+    // string literals and comments are skipped.
+    //
+    public static Set<String> getIdentifiers(String sql) {
+        Set<String> result = new HashSet<>();
+        if (TextUtils.isEmpty(sql)) {
+            return result;
+        }
+
+        final int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // 'it''s' literal.
+                i = skipQuoted(sql, i, '\'');
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end == -1 ? length : end + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end == -1 ? length : end + 2;
+            } else if (c == '"' || c == '`' || c == '[') {
+                char close = c == '[' ? ']' : c;
+                int end = skipQuoted(sql, i, close);
+                result.add(sql.substring(i + 1, Math.max(i + 1, end - 1)).toLowerCase(Locale.US));
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i))
+                        || sql.charAt(i) == '_' || sql.charAt(i) == '$')) {
+                    ++i;
+                }
+
+                result.add(sql.substring(start, i).toLowerCase(Locale.US));
+            } else {
+                ++i;
+            }
+        }
+
+        return result;
+    }
+
+    private static int skipQuoted(String sql, int start, char close) {
+        final int length = sql.length();
+        int i = start + 1;
+        while (i < length) {
+            if (sql.charAt(i) == close) {
+                if (close != ']' && i + 1 < length && sql.charAt(i + 1) == close) {
+                    // escaped quote.
+                    i += 2;
+                    continue;
+                }
+
+                return i + 1;
+            }
+
+            ++i;
+        }
+
+        return length;
+    }
+
     public static boolean dropTable(SQLiteDatabase db, String tbl) {
         if (db == null || TextUtils.isEmpty(tbl)) {
             return false;
@@ -0,0 +1,236 @@
+/**
+ * Android Simple ORM project.
+ *
+ * Copyright 2016 Arno Zhang <zyfgood12@163.com>
+ *
+ * Date 2026/10/18
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jungle.simpleorm.utils;
+
+import android.text.TextUtils;
+import com.jungle.simpleorm.BaseEntity;
+import com.jungle.simpleorm.constraint.AutoIncrement;
+import com.jungle.simpleorm.constraint.Cacheable;
+import com.jungle.simpleorm.constraint.CompositePrimaryKey;
+import com.jungle.simpleorm.constraint.DirtyTracking;
+import com.jungle.simpleorm.constraint.NotColumnField;
+import com.jungle.simpleorm.constraint.ORMTable;
+import com.jungle.simpleorm.constraint.PrimaryKey;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+//
+// everything the ORM reads from an entity class by reflection, computed once per class.
+// immutable once built, so it can be shared between threads without locking;
+// the registry lookup is a lock-free ConcurrentHashMap read after the first call.
+//
+// (ClassValue would fit here, but it's not available on Android.)
+//
+public class EntityMetadata {
+
+    private static final ConcurrentMap<Class<?>, EntityMetadata> mRegistry =
+            new ConcurrentHashMap<>();
+
+    private final Class<? extends BaseEntity> mEntityClass;
+    private final String mTableName;
+    private final List<Field> mEntityFields;
+    private final List<Field> mColumnFields;
+    private final List<EntityUtils.FieldHelper> mColumnHelpers;
+    private final List<Field> mPrimaryKeyFields;
+    private final List<Field> mNonKeyColumnFields;
+    private final Field mPrimaryKey;
+    private final Field mAutoIncrementKey;
+    private final boolean mIsDirtyTracking;
+    private final boolean mIsCacheable;
+
+
+    public static EntityMetadata of(Class<? extends BaseEntity> clazz) {
+        EntityMetadata metadata = mRegistry.get(clazz);
+        if (metadata != null) {
+            return metadata;
+        }
+
+        //
+        // may be built twice by racing threads, the first one registered wins.
+        //
+        Class<? extends BaseEntity> entityClass = EntityUtils.getEntityClass(clazz);
+        metadata = entityClass == clazz
+                ? new EntityMetadata(clazz)
+                : new EntityMetadata(clazz, of(entityClass));
+
+        EntityMetadata registered = mRegistry.putIfAbsent(clazz, metadata);
+        return registered != null ? registered : metadata;
+    }
+
+    private EntityMetadata(Class<? extends BaseEntity> clazz) {
+        mEntityClass = clazz;
+        mTableName = readTableName(clazz);
+        mIsDirtyTracking = clazz.isAnnotationPresent(DirtyTracking.class);
+        mIsCacheable = clazz.isAnnotationPresent(Cacheable.class);
+
+        List<Field> entityFields = new ArrayList<>();
+        List<Field> columnFields = new ArrayList<>();
+        List<EntityUtils.FieldHelper> columnHelpers = new ArrayList<>();
+        for (Field f : clazz.getFields()) {
+            if (Modifier.isStatic(f.getModifiers())
+                    || f.isAnnotationPresent(NotColumnField.class)) {
+                // exclude static member and NotColumnField.
+                continue;
+            }
+
+            entityFields.add(f);
+
+            //
+            // only the fields which can be mapped to a column TYPE.
+            //
+            EntityUtils.FieldHelper helper = EntityUtils.getFieldHelper(f.getType());
+            if (helper != null) {
+                if (!f.isAccessible()) {
+                    f.setAccessible(true);
+                }
+
+                columnFields.add(f);
+                columnHelpers.add(helper);
+            }
+        }
+
+        Field primaryKey = null;
+        for (Field f : clazz.getFields()) {
+            if (f.isAnnotationPresent(PrimaryKey.class)) {
+                if (!f.isAccessible()) {
+                    f.setAccessible(true);
+                }
+
+                primaryKey = f;
+                break;
+            }
+        }
+
+        //
+        // composite-key takes precedence over PRIMARY-KEY, same as the CREATE statement.
+        //
+        List<Field> keyFields = new ArrayList<>();
+        for (Field f : columnFields) {
+            if (f.isAnnotationPresent(CompositePrimaryKey.class)) {
+                keyFields.add(f);
+            }
+        }
+
+        if (keyFields.isEmpty() && primaryKey != null) {
+            keyFields.add(primaryKey);
+        }
+
+        List<Field> nonKeyFields = new ArrayList<>(columnFields);
+        nonKeyFields.removeAll(keyFields);
+
+        //
+        // only a single PrimaryKey can be AUTOINCREMENT.
+        //
+        Field autoIncrementKey = null;
+        if (keyFields.size() == 1 && keyFields.get(0).isAnnotationPresent(AutoIncrement.class)) {
+            autoIncrementKey = keyFields.get(0);
+        }
+
+        mEntityFields = Collections.unmodifiableList(entityFields);
+        mColumnFields = Collections.unmodifiableList(columnFields);
+        mColumnHelpers = Collections.unmodifiableList(columnHelpers);
+        mPrimaryKeyFields = Collections.unmodifiableList(keyFields);
+        mNonKeyColumnFields = Collections.unmodifiableList(nonKeyFields);
+        mPrimaryKey = primaryKey;
+        mAutoIncrementKey = autoIncrementKey;
+    }
+
+    //
+    // a UseParentFields class shares the fields of its entity class,
+    // but keeps its own table name and class annotations.
+    //
+    private EntityMetadata(Class<? extends BaseEntity> clazz, EntityMetadata entity) {
+        mEntityClass = entity.mEntityClass;
+        mTableName = readTableName(clazz);
+        mIsDirtyTracking = clazz.isAnnotationPresent(DirtyTracking.class);
+        mIsCacheable = clazz.isAnnotationPresent(Cacheable.class);
+
+        mEntityFields = entity.mEntityFields;
+        mColumnFields = entity.mColumnFields;
+        mColumnHelpers = entity.mColumnHelpers;
+        mPrimaryKeyFields = entity.mPrimaryKeyFields;
+        mNonKeyColumnFields = entity.mNonKeyColumnFields;
+        mPrimaryKey = entity.mPrimaryKey;
+        mAutoIncrementKey = entity.mAutoIncrementKey;
+    }
+
+    private static String readTableName(Class<? extends BaseEntity> clazz) {
+        ORMTable table = clazz.getAnnotation(ORMTable.class);
+        if (table != null && !TextUtils.isEmpty(table.value())) {
+            return table.value();
+        }
+
+        return clazz.getSimpleName();
+    }
+
+    public Class<? extends BaseEntity> getEntityClass() {
+        return mEntityClass;
+    }
+
+    public String getTableName() {
+        return mTableName;
+    }
+
+    public List<Field> getEntityFields() {
+        return mEntityFields;
+    }
+
+    public List<Field> getColumnFields() {
+        return mColumnFields;
+    }
+
+    //
+    // the column TYPE and cursor reader of getColumnFields().get(i).
+    //
+    public List<EntityUtils.FieldHelper> getColumnHelpers() {
+        return mColumnHelpers;
+    }
+
+    public List<Field> getPrimaryKeyFields() {
+        return mPrimaryKeyFields;
+    }
+
+    public List<Field> getNonKeyColumnFields() {
+        return mNonKeyColumnFields;
+    }
+
+    public Field getPrimaryKeyField() {
+        return mPrimaryKey;
+    }
+
+    public Field getAutoIncrementKeyField() {
+        return mAutoIncrementKey;
+    }
+
+    public boolean isDirtyTrackingEnabled() {
+        return mIsDirtyTracking;
+    }
+
+    public boolean isCacheable() {
+        return mIsCacheable;
+    }
+}
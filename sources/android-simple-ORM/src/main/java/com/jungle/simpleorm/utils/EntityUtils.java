@@ -27,18 +27,20 @@ import com.jungle.simpleorm.constraint.AutoIncrement;
 import com.jungle.simpleorm.constraint.CompositePrimaryKey;
 import com.jungle.simpleorm.constraint.DefaultNull;
 import com.jungle.simpleorm.constraint.ForeignKey;
-import com.jungle.simpleorm.constraint.NotColumnField;
+import com.jungle.simpleorm.constraint.Index;
+import com.jungle.simpleorm.constraint.Indices;
 import com.jungle.simpleorm.constraint.NotNull;
-import com.jungle.simpleorm.constraint.ORMTable;
 import com.jungle.simpleorm.constraint.PrimaryKey;
 import com.jungle.simpleorm.constraint.Unique;
 import com.jungle.simpleorm.constraint.UniqueField;
 import com.jungle.simpleorm.constraint.UseParentFields;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -60,14 +62,25 @@ public class EntityUtils {
     }
 
 
-    private static Map<Class<?>, FieldHelper> mFieldHelperList = new HashMap<>();
+    public static class IndexStatement {
+        public IndexStatement(String name, String sql) {
+            mName = name;
+            mSql = sql;
+        }
+
+        public String mName;
+        public String mSql;
+    }
 
-    private static Map<Class<? extends BaseEntity>, List<Field>> mCacheFields = new HashMap<>();
 
-    private static Map<Class<? extends BaseEntity>, Field> mCachePrimaryKeys = new HashMap<>();
+    //
+    // filled once in the static block, read-only afterwards.
+    //
+    private static final Map<Class<?>, FieldHelper> mFieldHelperList;
 
 
     static {
+        Map<Class<?>, FieldHelper> helpers = new HashMap<>();
 
         FieldHelper boolHelper = new FieldHelper("INTEGER", new FieldCursorHelper() {
             @Override
@@ -133,27 +146,29 @@ public class EntityUtils {
         });
 
 
-        mFieldHelperList.put(byte.class, integerHelper);
-        mFieldHelperList.put(boolean.class, integerHelper);
-        mFieldHelperList.put(short.class, integerHelper);
-        mFieldHelperList.put(int.class, integerHelper);
-        mFieldHelperList.put(long.class, integerHelper);
-        mFieldHelperList.put(Byte.class, integerHelper);
-        mFieldHelperList.put(Boolean.class, integerHelper);
-        mFieldHelperList.put(Short.class, integerHelper);
-        mFieldHelperList.put(Integer.class, integerHelper);
-        mFieldHelperList.put(Long.class, integerHelper);
+        helpers.put(byte.class, integerHelper);
+        helpers.put(boolean.class, integerHelper);
+        helpers.put(short.class, integerHelper);
+        helpers.put(int.class, integerHelper);
+        helpers.put(long.class, integerHelper);
+        helpers.put(Byte.class, integerHelper);
+        helpers.put(Boolean.class, integerHelper);
+        helpers.put(Short.class, integerHelper);
+        helpers.put(Integer.class, integerHelper);
+        helpers.put(Long.class, integerHelper);
 
-        mFieldHelperList.put(Float.class, floatHelper);
-        mFieldHelperList.put(float.class, floatHelper);
+        helpers.put(Float.class, floatHelper);
+        helpers.put(float.class, floatHelper);
 
-        mFieldHelperList.put(double.class, doubleHelper);
-        mFieldHelperList.put(Double.class, doubleHelper);
+        helpers.put(double.class, doubleHelper);
+        helpers.put(Double.class, doubleHelper);
 
-        mFieldHelperList.put(String.class, stringHelper);
+        helpers.put(String.class, stringHelper);
 
-        mFieldHelperList.put(byte[].class, blobHelper);
-        mFieldHelperList.put(Byte[].class, blobHelper);
+        helpers.put(byte[].class, blobHelper);
+        helpers.put(Byte[].class, blobHelper);
+
+        mFieldHelperList = Collections.unmodifiableMap(helpers);
     }
 
 
@@ -162,15 +177,7 @@ public class EntityUtils {
     }
 
     public static String getTableName(Class<? extends BaseEntity> clazz) {
-        if (clazz.isAnnotationPresent(ORMTable.class)) {
-            ORMTable table = clazz.getAnnotation(ORMTable.class);
-            String tableName = table.value();
-            if (!TextUtils.isEmpty(tableName)) {
-                return tableName;
-            }
-        }
-
-        return clazz.getSimpleName();
+        return EntityMetadata.of(clazz).getTableName();
     }
 
     public static String generateCreateStatement(BaseEntity entity) {
@@ -302,7 +309,377 @@ public class EntityUtils {
         return builder.toString();
     }
 
-    private static Class<? extends BaseEntity> getEntityClass(Class<? extends BaseEntity> clazz) {
+    //
+    // the indexes of @Index fields, @Indices and @ForeignKey columns,
+    // a foreign key column gets one unless an index already starts with it.
+    //
+    public static List<IndexStatement> generateIndexStatements(BaseEntity entity) {
+        String tableName = entity.getTableName();
+        List<Field> fields = getColumnFields(entity.getClass());
+
+        //
+        // the @Index fields sharing a name make one index.
+        //
+        Map<String, List<Field>> fieldIndices = new LinkedHashMap<>();
+        for (Field f : fields) {
+            Index index = f.getAnnotation(Index.class);
+            if (index == null) {
+                continue;
+            }
+
+            String name = !TextUtils.isEmpty(index.name())
+                    ? index.name() : "idx_" + tableName + "_" + f.getName();
+            List<Field> indexFields = fieldIndices.get(name);
+            if (indexFields == null) {
+                indexFields = new ArrayList<>();
+                fieldIndices.put(name, indexFields);
+            }
+
+            indexFields.add(f);
+        }
+
+        List<IndexStatement> result = new ArrayList<>();
+        List<String> leadingColumns = new ArrayList<>();
+        for (Map.Entry<String, List<Field>> entry : fieldIndices.entrySet()) {
+            List<Field> indexFields = entry.getValue();
+            List<String> columns = new ArrayList<>();
+            for (Field f : indexFields) {
+                String column = f.getName();
+                if (f.getAnnotation(Index.class).desc()) {
+                    column += " DESC";
+                }
+
+                columns.add(column);
+            }
+
+            Index first = indexFields.get(0).getAnnotation(Index.class);
+            result.add(generateIndexStatement(
+                    entry.getKey(), tableName, columns, first.unique(), first.where()));
+            leadingColumns.add(indexFields.get(0).getName());
+        }
+
+        Indices indices = entity.getClass().getAnnotation(Indices.class);
+        if (indices == null) {
+            indices = getEntityClass(entity.getClass()).getAnnotation(Indices.class);
+        }
+
+        if (indices != null) {
+            for (Index index : indices.value()) {
+                if (index.columns().length == 0) {
+                    continue;
+                }
+
+                List<String> columns = new ArrayList<>();
+                StringBuilder defaultName = new StringBuilder("idx_").append(tableName);
+                for (String column : index.columns()) {
+                    column = column.trim();
+                    String columnName = column.split("\\s+")[0];
+                    boolean hasOrder = !column.equals(columnName);
+
+                    columns.add(index.desc() && !hasOrder ? column + " DESC" : column);
+                    defaultName.append("_").append(columnName);
+                }
+
+                String name = !TextUtils.isEmpty(index.name())
+                        ? index.name() : defaultName.toString();
+                result.add(generateIndexStatement(
+                        name, tableName, columns, index.unique(), index.where()));
+                leadingColumns.add(columns.get(0).split("\\s+")[0]);
+            }
+        }
+
+        //
+        // SQLite doesn't index the child key of a FOREIGN KEY,
+        // checking or cascading a parent change would scan the whole table.
+        //
+        for (Field f : fields) {
+            if (f.isAnnotationPresent(ForeignKey.class) && !leadingColumns.contains(f.getName())) {
+                List<String> columns = new ArrayList<>();
+                columns.add(f.getName());
+
+                result.add(generateIndexStatement("idx_" + tableName + "_" + f.getName(),
+                        tableName, columns, false, null));
+                leadingColumns.add(f.getName());
+            }
+        }
+
+        return result;
+    }
+
+    private static IndexStatement generateIndexStatement(String name,
+            String tableName, List<String> columns, boolean unique, String where) {
+
+        StringBuilder builder = new StringBuilder("CREATE ");
+        if (unique) {
+            builder.append("UNIQUE ");
+        }
+
+        builder.append("INDEX IF NOT EXISTS ").append(name)
+                .append(" ON ").append(tableName)
+                .append(" (").append(TextUtils.join(", ", columns)).append(")");
+
+        if (!TextUtils.isEmpty(where)) {
+            builder.append(" WHERE ").append(where);
+        }
+
+        builder.append(";");
+        return new IndexStatement(name, builder.toString());
+    }
+
+    public static String generateInsertStatement(
+            Class<? extends BaseEntity> clazz, boolean isReplace) {
+
+        return generateInsertStatement(clazz, getTableName(clazz), isReplace);
+    }
+
+    public static String generateInsertStatement(
+            Class<? extends BaseEntity> clazz, String tableName, boolean isReplace) {
+
+        StringBuilder builder = new StringBuilder(isReplace ? "INSERT OR REPLACE INTO " : "INSERT INTO ");
+        appendInsertColumns(builder, clazz, tableName);
+        builder.append(";");
+
+        return builder.toString();
+    }
+
+    public static String generateInsertOrIgnoreStatement(
+            Class<? extends BaseEntity> clazz, String tableName) {
+
+        StringBuilder builder = new StringBuilder("INSERT OR IGNORE INTO ");
+        appendInsertColumns(builder, clazz, tableName);
+        builder.append(";");
+
+        return builder.toString();
+    }
+
+    public static String generateUpsertStatement(
+            Class<? extends BaseEntity> clazz, String tableName) {
+
+        List<Field> keys = getPrimaryKeyFields(clazz);
+        if (keys.isEmpty()) {
+            return null;
+        }
+
+        //
+        // INSERT INTO tableName (...) VALUES (...)
+        //      ON CONFLICT(primaryKey, ...) DO UPDATE SET field1 = excluded.field1, ...
+        //
+        StringBuilder builder = new StringBuilder("INSERT INTO ");
+        appendInsertColumns(builder, clazz, tableName);
+
+        builder.append(" ON CONFLICT(");
+        appendNames(builder, keys, ", ");
+        builder.append(")");
+
+        List<Field> fields = getNonKeyColumnFields(clazz);
+        if (fields.isEmpty()) {
+            builder.append(" DO NOTHING;");
+            return builder.toString();
+        }
+
+        builder.append(" DO UPDATE SET ");
+        final int count = fields.size();
+        for (int i = 0; i < count; ++i) {
+            String name = fields.get(i).getName();
+            builder.append(name).append(" = excluded.").append(name);
+            if (i < count - 1) {
+                builder.append(", ");
+            }
+        }
+
+        builder.append(";");
+        return builder.toString();
+    }
+
+    private static void appendInsertColumns(
+            StringBuilder builder, Class<? extends BaseEntity> clazz, String tableName) {
+
+        List<Field> fields = getColumnFields(clazz);
+        final int count = fields.size();
+
+        //
+        // tableName (field1, field2, ...) VALUES (?, ?, ...)
+        //
+        builder.append(tableName).append(" (");
+        for (int i = 0; i < count; ++i) {
+            builder.append(fields.get(i).getName());
+            if (i < count - 1) {
+                builder.append(", ");
+            }
+        }
+
+        builder.append(") VALUES (");
+        appendPlaceholders(builder, count);
+        builder.append(")");
+    }
+
+    public static String generateUpdateByKeyStatement(
+            Class<? extends BaseEntity> clazz, String tableName) {
+
+        return generateUpdateByKeyStatement(clazz, tableName, getNonKeyColumnFields(clazz));
+    }
+
+    public static String generateUpdateByKeyStatement(
+            Class<? extends BaseEntity> clazz, String tableName, List<Field> fields) {
+
+        List<Field> keys = getPrimaryKeyFields(clazz);
+        if (keys.isEmpty() || fields.isEmpty()) {
+            return null;
+        }
+
+        //
+        // UPDATE tableName SET field1 = ?, field2 = ? WHERE primaryKey1 = ? AND ...
+        //
+        StringBuilder builder = new StringBuilder("UPDATE ");
+        builder.append(tableName).append(" SET ");
+
+        final int count = fields.size();
+        for (int i = 0; i < count; ++i) {
+            builder.append(fields.get(i).getName()).append(" = ?");
+            if (i < count - 1) {
+                builder.append(", ");
+            }
+        }
+
+        builder.append(" WHERE ");
+        appendNames(builder, keys, " = ? AND ");
+        builder.append(" = ?;");
+
+        return builder.toString();
+    }
+
+    public static String generateDeleteByKeyStatement(
+            Class<? extends BaseEntity> clazz, String tableName) {
+
+        Field primaryKey = getPrimaryKeyField(clazz);
+        if (primaryKey == null) {
+            return null;
+        }
+
+        return "DELETE FROM " + tableName + " WHERE " + primaryKey.getName() + " = ?;";
+    }
+
+    public static String generateQueryByKeyStatement(
+            Class<? extends BaseEntity> clazz, String tableName) {
+
+        Field primaryKey = getPrimaryKeyField(clazz);
+        if (primaryKey == null) {
+            return null;
+        }
+
+        return "SELECT * FROM " + tableName + " WHERE " + primaryKey.getName() + " = ?;";
+    }
+
+    public static String generateDeleteByKeysStatement(
+            Class<? extends BaseEntity> clazz, String tableName, int keyCount) {
+
+        Field primaryKey = getPrimaryKeyField(clazz);
+        if (primaryKey == null || keyCount <= 0) {
+            return null;
+        }
+
+        //
+        // DELETE FROM tableName WHERE primaryKey IN (?, ?, ...)
+        //
+        StringBuilder builder = new StringBuilder("DELETE FROM ");
+        builder.append(tableName).append(" WHERE ").append(primaryKey.getName()).append(" IN (");
+        appendPlaceholders(builder, keyCount);
+        builder.append(");");
+
+        return builder.toString();
+    }
+
+    public static String generateQueryByKeysStatement(
+            Class<? extends BaseEntity> clazz, String tableName, int keyCount) {
+
+        Field primaryKey = getPrimaryKeyField(clazz);
+        if (primaryKey == null || keyCount <= 0) {
+            return null;
+        }
+
+        //
+        // SELECT * FROM tableName WHERE primaryKey IN (?, ?, ...)
+        //
+        StringBuilder builder = new StringBuilder("SELECT * FROM ");
+        builder.append(tableName).append(" WHERE ").append(primaryKey.getName()).append(" IN (");
+        appendPlaceholders(builder, keyCount);
+        builder.append(");");
+
+        return builder.toString();
+    }
+
+    public static String generateKeysetQueryStatement(String tableName,
+            List<Field> orderFields, String condition, boolean hasLastKeys, int limit) {
+
+        if (orderFields.isEmpty() || limit <= 0) {
+            return null;
+        }
+
+        //
+        // SELECT * FROM tableName WHERE (condition) AND (a > ? OR (a = ? AND b > ?))
+        //     ORDER BY a, b LIMIT limit
+        //
+        // the row-value form `(a, b) > (?, ?)` needs SQLite 3.15, so expand it.
+        //
+        StringBuilder builder = new StringBuilder("SELECT * FROM ");
+        builder.append(tableName);
+
+        boolean hasCondition = condition != null && condition.length() > 0;
+        if (hasCondition || hasLastKeys) {
+            builder.append(" WHERE ");
+        }
+
+        if (hasCondition) {
+            builder.append("(").append(condition).append(")");
+        }
+
+        if (hasLastKeys) {
+            if (hasCondition) {
+                builder.append(" AND ");
+            }
+
+            builder.append("(");
+            final int count = orderFields.size();
+            for (int i = 0; i < count; ++i) {
+                if (i > 0) {
+                    builder.append(" OR ");
+                }
+
+                builder.append("(");
+                for (int j = 0; j < i; ++j) {
+                    builder.append(orderFields.get(j).getName()).append(" = ? AND ");
+                }
+
+                builder.append(orderFields.get(i).getName()).append(" > ?)");
+            }
+
+            builder.append(")");
+        }
+
+        builder.append(" ORDER BY ");
+        appendNames(builder, orderFields, ", ");
+        builder.append(" LIMIT ").append(limit).append(";");
+
+        return builder.toString();
+    }
+
+    private static void appendNames(StringBuilder builder, List<Field> fields, String separator) {
+        final int count = fields.size();
+        for (int i = 0; i < count; ++i) {
+            builder.append(fields.get(i).getName());
+            if (i < count - 1) {
+                builder.append(separator);
+            }
+        }
+    }
+
+    public static void appendPlaceholders(StringBuilder builder, int count) {
+        for (int i = 0; i < count; ++i) {
+            builder.append(i < count - 1 ? "?, " : "?");
+        }
+    }
+
+    public static Class<? extends BaseEntity> getEntityClass(Class<? extends BaseEntity> clazz) {
         while (clazz.isAnnotationPresent(UseParentFields.class)) {
             Class<?> superClazz = clazz.<BaseEntity>getSuperclass();
             if (superClazz == BaseEntity.class) {
@@ -316,50 +693,98 @@ public class EntityUtils {
     }
 
     public static List<Field> getEntityFields(Class<? extends BaseEntity> clazz) {
-        clazz = getEntityClass(clazz);
+        return EntityMetadata.of(clazz).getEntityFields();
+    }
 
-        List<Field> result = mCacheFields.get(clazz);
-        if (result != null) {
-            return result;
-        }
+    public static List<Field> getColumnFields(Class<? extends BaseEntity> clazz) {
+        return EntityMetadata.of(clazz).getColumnFields();
+    }
 
-        result = new ArrayList<Field>();
-        Field[] fields = clazz.getFields();
+    public static List<Field> getNonKeyColumnFields(Class<? extends BaseEntity> clazz) {
+        return EntityMetadata.of(clazz).getNonKeyColumnFields();
+    }
 
-        for (Field f : fields) {
-            if (Modifier.isStatic(f.getModifiers())
-                    || f.isAnnotationPresent(NotColumnField.class)) {
-                // exclude static member and NotColumnField.
-                continue;
-            }
+    public static List<Field> getPrimaryKeyFields(Class<? extends BaseEntity> clazz) {
+        return EntityMetadata.of(clazz).getPrimaryKeyFields();
+    }
 
-            result.add(f);
-        }
+    public static boolean isDirtyTrackingEnabled(Class<? extends BaseEntity> clazz) {
+        return EntityMetadata.of(clazz).isDirtyTrackingEnabled();
+    }
 
-        mCacheFields.put(clazz, result);
-        return result;
+    public static boolean isCacheable(Class<? extends BaseEntity> clazz) {
+        return EntityMetadata.of(clazz).isCacheable();
     }
 
-    public static Field getPrimaryKeyField(Class<? extends BaseEntity> clazz) {
-        clazz = getEntityClass(clazz);
+    public static Object[] takeSnapshot(BaseEntity entity) {
+        List<Field> fields = getNonKeyColumnFields(entity.getClass());
+        final int count = fields.size();
+        Object[] snapshot = new Object[count];
+
+        try {
+            for (int i = 0; i < count; ++i) {
+                Object value = fields.get(i).get(entity);
+                if (value instanceof byte[]) {
+                    //
+                    // blobs are edited in place, keep a copy to compare the content later.
+                    //
+                    value = ((byte[]) value).clone();
+                } else if (value instanceof Byte[]) {
+                    value = ((Byte[]) value).clone();
+                }
 
-        Field primaryKey = mCachePrimaryKeys.get(clazz);
-        if (primaryKey != null) {
-            return primaryKey;
+                snapshot[i] = value;
+            }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+            return null;
         }
 
-        Field[] fields = clazz.getFields();
-        for (Field f : fields) {
-            if (f.isAnnotationPresent(PrimaryKey.class)) {
-                if (!f.isAccessible()) {
-                    f.setAccessible(true);
+        return snapshot;
+    }
+
+    public static List<Field> getDirtyFields(BaseEntity entity, Object[] snapshot) {
+        List<Field> fields = getNonKeyColumnFields(entity.getClass());
+        final int count = fields.size();
+        if (snapshot == null || snapshot.length != count) {
+            return fields;
+        }
+
+        List<Field> result = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; ++i) {
+                Field f = fields.get(i);
+                Object value = f.get(entity);
+                Object stored = snapshot[i];
+
+                boolean changed;
+                if (stored instanceof byte[]) {
+                    changed = !(value instanceof byte[])
+                            || !Arrays.equals((byte[]) stored, (byte[]) value);
+                } else if (stored instanceof Byte[]) {
+                    changed = !(value instanceof Byte[])
+                            || !Arrays.equals((Byte[]) stored, (Byte[]) value);
+                } else {
+                    changed = stored == null ? value != null : !stored.equals(value);
                 }
 
-                mCachePrimaryKeys.put(clazz, f);
-                return f;
+                if (changed) {
+                    result.add(f);
+                }
             }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+            return fields;
         }
 
-        return null;
+        return result;
+    }
+
+    public static Field getPrimaryKeyField(Class<? extends BaseEntity> clazz) {
+        return EntityMetadata.of(clazz).getPrimaryKeyField();
+    }
+
+    public static Field getAutoIncrementKeyField(Class<? extends BaseEntity> clazz) {
+        return EntityMetadata.of(clazz).getAutoIncrementKeyField();
     }
 }
@@ -48,7 +48,9 @@ public class DemoApplication extends Application {
         mApp = this;
 
         final int DB_VERSION = 1;
-        mORMSupporter = new SQLiteORMSupporter(this, getDatabaseFilePath(), DB_VERSION, mORMListener);
+        SQLiteORMSupporter supporter = new SQLiteORMSupporter();
+        supporter.initORMAsync(this, getDatabaseFilePath(), DB_VERSION, mORMListener, 0, Student.class);
+        mORMSupporter = supporter;
     }
 
     private SimpleORMDatabaseListener mORMListener = new SimpleORMDatabaseListener() {
@@ -56,7 +58,7 @@ public class DemoApplication extends Application {
         public void onCreated(ORMSupporter supporter, SQLiteDatabase db) {
             super.onCreated(supporter, db);
 
-            supporter.createTable(Student.class);
+            supporter.createTables(Student.class);
         }
 
         @Override